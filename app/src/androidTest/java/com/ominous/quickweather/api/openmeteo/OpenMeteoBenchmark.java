@@ -0,0 +1,120 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.ominous.quickweather.api.openmeteo;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.ominous.quickweather.api.HttpClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.StringReader;
+
+import okhttp3.Request;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+//Times each stage of an Open-Meteo refresh against a local server, so the network does not add noise.
+//Conversion is private to OpenMeteo, so its cost is the difference between fetchParseConvert and the other two
+//Run with ./gradlew :app:connectedMicrobenchmarkAndroidTest, the JSON results are copied to
+//build/outputs/connected_android_test_additional_output
+@RunWith(AndroidJUnit4.class)
+public class OpenMeteoBenchmark {
+    private final static double LATITUDE = 40.7128;
+    private final static double LONGITUDE = -74.0060;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final MockWebServer server = new MockWebServer();
+    private Context context;
+    private String response;
+    private String selfHostedInstance;
+
+    @Before
+    public void setUp() throws Exception {
+        context = ApplicationProvider.getApplicationContext();
+        response = OpenMeteoFixture.create(1);
+
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest recordedRequest) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setHeader("Cache-Control", "no-store")
+                        .setBody(response);
+            }
+        });
+        server.start();
+
+        //OpenMeteo appends the path to the instance, so the trailing slash is dropped
+        String url = server.url("/").toString();
+        selfHostedInstance = url.substring(0, url.length() - 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void fetch() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        HttpClient httpClient = HttpClient.getInstance(context);
+        Request request = new Request.Builder()
+                .url(selfHostedInstance + "/v1/forecast")
+                .build();
+
+        while (state.keepRunning()) {
+            httpClient.fetch(request);
+        }
+    }
+
+    @Test
+    public void parse() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+
+        while (state.keepRunning()) {
+            new OpenMeteoForecastParser().parse(new StringReader(response), 1);
+        }
+    }
+
+    @Test
+    public void fetchParseConvert() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        OpenMeteo openMeteo = OpenMeteo.getInstance();
+
+        while (state.keepRunning()) {
+            openMeteo.getCurrentWeather(context, LATITUDE, LONGITUDE, "", selfHostedInstance);
+        }
+    }
+}
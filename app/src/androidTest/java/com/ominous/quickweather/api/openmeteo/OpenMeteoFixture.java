@@ -0,0 +1,144 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.ominous.quickweather.api.openmeteo;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Random;
+
+//Builds a response in the shape of OpenMeteo.forecastApi (8 days, hourly), starting at the current hour so
+//the conversion takes the same path as it does for a fresh response
+class OpenMeteoFixture {
+    private final static int DAYS = 8;
+    private final static int HOURS = DAYS * 24;
+    private final static long ONE_HOUR = 60 * 60;
+    private final static long ONE_DAY = 24 * ONE_HOUR;
+
+    private final static String[] HOURLY_DOUBLES = {
+            "temperature_2m", "apparent_temperature", "rain", "showers", "snowfall", "surface_pressure",
+            "visibility", "dewpoint_2m", "windspeed_10m", "uv_index"};
+    private final static String[] HOURLY_INTS = {
+            "precipitation_probability", "relativehumidity_2m", "winddirection_10m"};
+    private final static String[] DAILY_DOUBLES = {
+            "temperature_2m_max", "temperature_2m_min", "uv_index_max", "rain_sum", "showers_sum",
+            "snowfall_sum", "windspeed_10m_max"};
+    private final static int[] WEATHER_CODES = {0, 1, 2, 3, 45, 51, 61, 63, 71, 80, 95};
+    private final static String[] DAILY_INTS = {
+            "winddirection_10m_dominant"};
+
+    static String create(int locations) throws JSONException {
+        //Fixed seed, so every run parses the same payload
+        Random random = new Random(85);
+        long now = System.currentTimeMillis() / 1000;
+        long firstHour = now - now % ONE_HOUR;
+        long firstDay = now - now % ONE_DAY;
+
+        if (locations == 1) {
+            return createForecast(random, firstHour, firstDay).toString();
+        }
+
+        JSONArray forecasts = new JSONArray();
+
+        for (int i = 0; i < locations; i++) {
+            forecasts.put(createForecast(random, firstHour, firstDay));
+        }
+
+        return forecasts.toString();
+    }
+
+    private static JSONObject createForecast(Random random, long firstHour, long firstDay) throws JSONException {
+        JSONObject hourly = new JSONObject()
+                .put("time", createTimes(firstHour, ONE_HOUR, HOURS))
+                .put("is_day", createInts(random, HOURS, 2))
+                .put("weathercode", createWeatherCodes(random, HOURS));
+        JSONObject daily = new JSONObject()
+                .put("time", createTimes(firstDay, ONE_DAY, DAYS))
+                .put("sunrise", createTimes(firstDay + 6 * ONE_HOUR, ONE_DAY, DAYS))
+                .put("sunset", createTimes(firstDay + 18 * ONE_HOUR, ONE_DAY, DAYS))
+                .put("weathercode", createWeatherCodes(random, DAYS));
+
+        for (String key : HOURLY_DOUBLES) {
+            hourly.put(key, createDoubles(random, HOURS));
+        }
+
+        for (String key : HOURLY_INTS) {
+            hourly.put(key, createInts(random, HOURS, 100));
+        }
+
+        for (String key : DAILY_DOUBLES) {
+            daily.put(key, createDoubles(random, DAYS));
+        }
+
+        for (String key : DAILY_INTS) {
+            daily.put(key, createInts(random, DAYS, 100));
+        }
+
+        return new JSONObject()
+                .put("timezone", "America/New_York")
+                .put("current_weather", new JSONObject()
+                        .put("temperature", 60 + random.nextInt(300) / 10.0)
+                        .put("windspeed", random.nextInt(200) / 10.0)
+                        .put("winddirection", random.nextInt(360))
+                        .put("weathercode", WEATHER_CODES[random.nextInt(WEATHER_CODES.length)]))
+                .put("hourly", hourly)
+                .put("daily", daily);
+    }
+
+    private static JSONArray createTimes(long start, long step, int count) {
+        JSONArray times = new JSONArray();
+
+        for (int i = 0; i < count; i++) {
+            times.put(start + i * step);
+        }
+
+        return times;
+    }
+
+    private static JSONArray createDoubles(Random random, int count) throws JSONException {
+        JSONArray values = new JSONArray();
+
+        for (int i = 0; i < count; i++) {
+            values.put(random.nextInt(1000) / 10.0);
+        }
+
+        return values;
+    }
+
+    private static JSONArray createInts(Random random, int count, int bound) {
+        JSONArray values = new JSONArray();
+
+        for (int i = 0; i < count; i++) {
+            values.put(random.nextInt(bound));
+        }
+
+        return values;
+    }
+
+    private static JSONArray createWeatherCodes(Random random, int count) {
+        JSONArray values = new JSONArray();
+
+        for (int i = 0; i < count; i++) {
+            values.put(WEATHER_CODES[random.nextInt(WEATHER_CODES.length)]);
+        }
+
+        return values;
+    }
+}
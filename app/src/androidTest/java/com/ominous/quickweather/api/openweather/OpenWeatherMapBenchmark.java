@@ -0,0 +1,160 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.ominous.quickweather.api.openweather;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.ominous.quickweather.api.HttpClient;
+import com.ominous.quickweather.pref.OwmApiVersion;
+import com.ominous.tylerutils.util.JsonUtils;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import okhttp3.Request;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+//Times each stage of an OpenWeatherMap refresh, One Call and the 5 day forecast, against a local server.
+//Conversion is private to OpenWeatherMap, so its cost is the difference between fetchParseConvert and the other two
+//Run with ./gradlew :app:connectedMicrobenchmarkAndroidTest, the JSON results are copied to
+//build/outputs/connected_android_test_additional_output
+@RunWith(AndroidJUnit4.class)
+public class OpenWeatherMapBenchmark {
+    private final static double LATITUDE = 40.7128;
+    private final static double LONGITUDE = -74.0060;
+    private final static String API_KEY = "benchmark";
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final MockWebServer server = new MockWebServer();
+    private Context context;
+    private String oneCallResponse;
+    private String forecastResponse;
+    private String apiInstance;
+
+    @Before
+    public void setUp() throws Exception {
+        context = ApplicationProvider.getApplicationContext();
+        oneCallResponse = OpenWeatherMapFixture.createOneCall();
+        forecastResponse = OpenWeatherMapFixture.createForecast();
+
+        server.setDispatcher(new Dispatcher() {
+            @NonNull
+            @Override
+            public MockResponse dispatch(@NonNull RecordedRequest recordedRequest) {
+                String path = recordedRequest.getPath();
+
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setHeader("Cache-Control", "no-store")
+                        .setBody(path != null && path.startsWith("/data/2.5/forecast") ?
+                                forecastResponse :
+                                oneCallResponse);
+            }
+        });
+        server.start();
+
+        //OpenWeatherMap appends the path to the instance, so the trailing slash is dropped
+        String url = server.url("/").toString();
+        apiInstance = url.substring(0, url.length() - 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void fetchOneCall() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        HttpClient httpClient = HttpClient.getInstance(context);
+        Request request = new Request.Builder()
+                .url(apiInstance + "/data/3.0/onecall")
+                .build();
+
+        while (state.keepRunning()) {
+            httpClient.fetch(request);
+        }
+    }
+
+    @Test
+    public void parseOneCall() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+
+        while (state.keepRunning()) {
+            JsonUtils.deserialize(OpenWeatherOneCall.class, new JSONObject(oneCallResponse));
+        }
+    }
+
+    @Test
+    public void fetchParseConvertOneCall() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        OpenWeatherMap openWeatherMap = OpenWeatherMap.getInstance();
+
+        while (state.keepRunning()) {
+            openWeatherMap.getCurrentWeather(context, OwmApiVersion.ONECALL_3_0, LATITUDE, LONGITUDE, API_KEY, apiInstance);
+        }
+    }
+
+    @Test
+    public void fetchForecast() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        HttpClient httpClient = HttpClient.getInstance(context);
+        Request request = new Request.Builder()
+                .url(apiInstance + "/data/2.5/forecast")
+                .build();
+
+        while (state.keepRunning()) {
+            httpClient.fetch(request);
+        }
+    }
+
+    @Test
+    public void parseForecast() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+
+        while (state.keepRunning()) {
+            JsonUtils.deserialize(OpenWeatherForecast.class, new JSONObject(forecastResponse));
+        }
+    }
+
+    @Test
+    public void fetchParseConvertForecast() throws Exception {
+        BenchmarkState state = benchmarkRule.getState();
+        OpenWeatherMap openWeatherMap = OpenWeatherMap.getInstance();
+
+        while (state.keepRunning()) {
+            openWeatherMap.getForecastWeather(context, LATITUDE, LONGITUDE, API_KEY, apiInstance);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.ominous.quickweather.api.openweather;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Random;
+
+//Builds One Call and 5 day forecast responses with the fields OpenWeatherOneCall and OpenWeatherForecast read,
+//starting now, so the conversion takes the same path as it does for a fresh response
+class OpenWeatherMapFixture {
+    private final static int MINUTES = 61;
+    private final static int HOURS = 48;
+    private final static int DAYS = 8;
+    private final static int FORECASTS = 40; //every 3 hours for 5 days
+    private final static long ONE_MINUTE = 60;
+    private final static long ONE_HOUR = 60 * ONE_MINUTE;
+    private final static long ONE_DAY = 24 * ONE_HOUR;
+
+    private final static int[] WEATHER_IDS = {200, 300, 500, 501, 600, 701, 800, 801, 802, 804};
+    private final static String[] WEATHER_ICONS = {"11d", "09d", "10d", "10d", "13d", "50d", "01d", "02d", "03d", "04d"};
+    private final static String[] WEATHER_DESCRIPTIONS = {"thunderstorm", "light intensity drizzle", "light rain",
+            "moderate rain", "light snow", "mist", "clear sky", "few clouds", "scattered clouds", "overcast clouds"};
+
+    static String createOneCall() throws JSONException {
+        //Fixed seed, so every run parses the same payload
+        Random random = new Random(85);
+        long now = System.currentTimeMillis() / 1000;
+
+        JSONArray minutely = new JSONArray();
+
+        for (int i = 0; i < MINUTES; i++) {
+            minutely.put(new JSONObject()
+                    .put("dt", now - now % ONE_MINUTE + i * ONE_MINUTE)
+                    .put("precipitation", random.nextInt(20) / 10.0));
+        }
+
+        JSONArray hourly = new JSONArray();
+
+        for (int i = 0; i < HOURS; i++) {
+            hourly.put(createDataPoint(random, now - now % ONE_HOUR + i * ONE_HOUR));
+        }
+
+        JSONArray daily = new JSONArray();
+
+        for (int i = 0; i < DAYS; i++) {
+            long dt = now - now % ONE_DAY + i * ONE_DAY + 12 * ONE_HOUR;
+
+            daily.put(new JSONObject()
+                    .put("dt", dt)
+                    .put("temp", new JSONObject()
+                            .put("min", 40 + random.nextInt(200) / 10.0)
+                            .put("max", 60 + random.nextInt(300) / 10.0))
+                    .put("humidity", random.nextInt(100))
+                    .put("pressure", 1000 + random.nextInt(30))
+                    .put("dew_point", 30 + random.nextInt(300) / 10.0)
+                    .put("wind_speed", random.nextInt(200) / 10.0)
+                    .put("wind_deg", random.nextInt(360))
+                    .put("pop", random.nextInt(100) / 100.0)
+                    .put("weather", createWeather(random))
+                    .put("rain", random.nextInt(50) / 10.0)
+                    .put("snow", 0)
+                    .put("uvi", random.nextInt(100) / 10.0)
+                    .put("sunrise", dt - 6 * ONE_HOUR)
+                    .put("sunset", dt + 6 * ONE_HOUR)
+                    .put("moonrise", dt - 3 * ONE_HOUR)
+                    .put("moonset", dt + 9 * ONE_HOUR)
+                    .put("moon_phase", random.nextInt(100) / 100.0));
+        }
+
+        return new JSONObject()
+                .put("timezone", "America/New_York")
+                .put("current", createDataPoint(random, now))
+                .put("minutely", minutely)
+                .put("hourly", hourly)
+                .put("daily", daily)
+                .toString();
+    }
+
+    static String createForecast() throws JSONException {
+        Random random = new Random(85);
+        long now = System.currentTimeMillis() / 1000;
+        JSONArray list = new JSONArray();
+
+        for (int i = 0; i < FORECASTS; i++) {
+            list.put(new JSONObject()
+                    .put("dt", now - now % (3 * ONE_HOUR) + (i + 1) * 3 * ONE_HOUR)
+                    .put("main", new JSONObject()
+                            .put("temp", 40 + random.nextInt(500) / 10.0))
+                    .put("weather", createWeather(random))
+                    .put("rain", new JSONObject()
+                            .put("3h", random.nextInt(50) / 10.0))
+                    .put("pop", random.nextInt(100) / 100.0));
+        }
+
+        return new JSONObject()
+                .put("cnt", FORECASTS)
+                .put("list", list)
+                .toString();
+    }
+
+    private static JSONObject createDataPoint(Random random, long dt) throws JSONException {
+        return new JSONObject()
+                .put("dt", dt)
+                .put("temp", 40 + random.nextInt(500) / 10.0)
+                .put("feels_like", 40 + random.nextInt(500) / 10.0)
+                .put("visibility", 10000)
+                .put("humidity", random.nextInt(100))
+                .put("wind_speed", random.nextInt(200) / 10.0)
+                .put("wind_deg", random.nextInt(360))
+                .put("pressure", 1000 + random.nextInt(30))
+                .put("dew_point", 30 + random.nextInt(300) / 10.0)
+                .put("uvi", random.nextInt(100) / 10.0)
+                .put("pop", random.nextInt(100) / 100.0)
+                .put("weather", createWeather(random))
+                .put("rain", new JSONObject()
+                        .put("1h", random.nextInt(20) / 10.0));
+    }
+
+    private static JSONArray createWeather(Random random) throws JSONException {
+        int weather = random.nextInt(WEATHER_IDS.length);
+
+        return new JSONArray()
+                .put(new JSONObject()
+                        .put("id", WEATHER_IDS[weather])
+                        .put("icon", WEATHER_ICONS[weather])
+                        .put("description", WEATHER_DESCRIPTIONS[weather]));
+    }
+}
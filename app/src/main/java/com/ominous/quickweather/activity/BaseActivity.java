@@ -31,6 +31,8 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 
 import com.ominous.quickweather.R;
+import com.ominous.quickweather.app.QuickWeather;
+import com.ominous.quickweather.app.StartupPipeline;
 import com.ominous.quickweather.data.WeatherDatabase;
 import com.ominous.quickweather.pref.WeatherPreferences;
 import com.ominous.quickweather.util.ColorHelper;
@@ -136,8 +138,13 @@ public abstract class BaseActivity extends AppCompatActivity implements ILifecyc
 
     private boolean isInitialized() {
         try {
-            return Promise.create((a) -> WeatherPreferences.getInstance(this).isInitialized() &&
-                    WeatherDatabase.getInstance(this).locationDao().getCount() > 0).await();
+            return Promise.create((a) -> {
+                //Locations from older versions are moved into the database during startup
+                StartupPipeline.getInstance().await(QuickWeather.TASK_MIGRATIONS);
+
+                return WeatherPreferences.getInstance(this).isInitialized() &&
+                        WeatherDatabase.getInstance(this).locationDao().getCount() > 0;
+            }).await();
         } catch (ExecutionException | InterruptedException e) {
             e.printStackTrace();
             return false;
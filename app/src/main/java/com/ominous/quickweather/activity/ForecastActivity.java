@@ -124,15 +124,24 @@ public class ForecastActivity extends BaseActivity {
         forecastViewModel.getWeatherModel().observe(this, weatherModel -> {
             swipeRefreshLayout.setRefreshing(
                     weatherModel.status == WeatherModel.WeatherStatus.UPDATING ||
-                            weatherModel.status == WeatherModel.WeatherStatus.OBTAINING_LOCATION);
+                            weatherModel.status == WeatherModel.WeatherStatus.OBTAINING_LOCATION ||
+                            weatherModel.status == WeatherModel.WeatherStatus.STALE);
 
             snackbarHelper.dismiss();
 
             switch (weatherModel.status) {
+                case STALE:
+                    weatherModel.date = date;
+                    updateWeather(weatherModel);
+                    break;
                 case SUCCESS:
                     weatherModel.date = date;
                     updateWeather(weatherModel);
 
+                    if (WeatherPreferences.getInstance(this).shouldDoGadgetbridgeBroadcast()) {
+                        Gadgetbridge.getInstance().broadcastWeather(this, weatherModel.weatherLocation, weatherModel.currentWeather);
+                    }
+
                     WeatherWorkManager.enqueueNotificationWorker(this, true);
 
                     if (WeatherPreferences.getInstance(this).shouldShowPersistentNotification()) {
@@ -162,10 +171,6 @@ public class ForecastActivity extends BaseActivity {
     }
 
     private void updateWeather(WeatherModel weatherModel) {
-        if (WeatherPreferences.getInstance(this).shouldDoGadgetbridgeBroadcast()) {
-            Gadgetbridge.getInstance().broadcastWeather(this, weatherModel.weatherLocation, weatherModel.currentWeather);
-        }
-
         long thisDate = LocaleUtils.getStartOfDay(date, weatherModel.currentWeather.timezone);
 
         boolean isToday = false;
@@ -279,7 +284,7 @@ public class ForecastActivity extends BaseActivity {
         }
 
         private void obtainWeatherAsync() {
-            WeatherDataManager.getInstance().getWeatherAsync(getApplication().getApplicationContext(), weatherModelLiveData, true, false);
+            WeatherDataManager.getInstance().getWeatherAsync(getApplication().getApplicationContext(), weatherModelLiveData, true, false, true);
         }
     }
 }
\ No newline at end of file
@@ -254,22 +254,32 @@ public class MainActivity extends BaseActivity {
         mainViewModel.getWeatherModel().observe(this, weatherModel -> {
             swipeRefreshLayout.setRefreshing(
                     weatherModel.status == WeatherModel.WeatherStatus.UPDATING ||
-                            weatherModel.status == WeatherModel.WeatherStatus.OBTAINING_LOCATION);
+                            weatherModel.status == WeatherModel.WeatherStatus.OBTAINING_LOCATION ||
+                            weatherModel.status == WeatherModel.WeatherStatus.STALE);
 
             snackbarHelper.dismiss();
 
             checkPermissions();
 
             switch (weatherModel.status) {
+                case STALE:
+                    updateWeather(weatherModel);
+                    break;
                 case SUCCESS:
                     updateWeather(weatherModel);
 
+                    if (WeatherPreferences.getInstance(this).shouldDoGadgetbridgeBroadcast()) {
+                        Gadgetbridge.getInstance().broadcastWeather(this, weatherModel.weatherLocation, weatherModel.currentWeather);
+                    }
+
                     WeatherWorkManager.enqueueNotificationWorker(this, true);
 
                     if (WeatherPreferences.getInstance(this).shouldShowPersistentNotification()) {
                         NotificationUtils.updatePersistentNotification(this, weatherModel.weatherLocation, weatherModel.currentWeather);
                     }
 
+                    WeatherDataManager.getInstance().prefetchWeatherAsync(getApplicationContext());
+
                     if (weatherModel.currentWeather.alerts != null) {
                         Promise.create((a) -> {
                             for (CurrentWeather.Alert alert : weatherModel.currentWeather.alerts) {
@@ -361,10 +371,6 @@ public class MainActivity extends BaseActivity {
     }
 
     private void updateWeather(WeatherModel weatherModel) {
-        if (WeatherPreferences.getInstance(this).shouldDoGadgetbridgeBroadcast()) {
-            Gadgetbridge.getInstance().broadcastWeather(this, weatherModel.weatherLocation, weatherModel.currentWeather);
-        }
-
         if (weatherModel.weatherLocation.isCurrentLocation &&
                 !weatherLocationManager.isBackgroundLocationPermissionGranted(this) &&
                 weatherLocationManager.isLocationPermissionGranted(this) &&
@@ -376,6 +382,9 @@ public class MainActivity extends BaseActivity {
 
         weatherCardRecyclerView.update(weatherModel);
 
+        //Marks the end of startup for the startup benchmark. Only the first call is reported
+        reportFullyDrawn();
+
         ColorHelper colorHelper = ColorHelper.getInstance(this);
 
         int color = colorHelper.getColorFromTemperature(
@@ -630,7 +639,7 @@ public class MainActivity extends BaseActivity {
         }
 
         private void obtainWeatherAsync() {
-            WeatherDataManager.getInstance().getWeatherAsync(this.getApplication().getApplicationContext(), weatherModelLiveData, false, false);
+            WeatherDataManager.getInstance().getWeatherAsync(this.getApplication().getApplicationContext(), weatherModelLiveData, false, false, true);
         }
     }
 }
\ No newline at end of file
@@ -1242,7 +1242,7 @@ public class SettingsActivity extends OnboardingActivity2 implements ILifecycleA
 
                     Promise.create((a) -> {
                                 OwmApiVersion apiVersion = OpenWeatherMap.getInstance()
-                                        .determineApiVersion(apiKeyText);
+                                        .determineApiVersion(SettingsActivity.this, apiKeyText);
 
                                 SettingsActivity.this.runOnUiThread(() -> {
                                     owmTestApiProgressIndicator.hide();
@@ -1286,7 +1286,7 @@ public class SettingsActivity extends OnboardingActivity2 implements ILifecycleA
 
                 Promise.create((a) -> {
                             boolean result = OpenMeteo.getInstance()
-                                    .testConnection(selfHostedInstance, apiKey);
+                                    .testConnection(SettingsActivity.this, selfHostedInstance, apiKey);
 
                             SettingsActivity.this.runOnUiThread(() -> {
                                 openmeteoTestConnectionProgressIndicator.hide();
@@ -0,0 +1,195 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.api;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import org.json.JSONException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Cache;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Dns;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+//Process-wide HTTP client for the weather providers, RainViewer and the map. OkHttp handles gzip transparently,
+//and the disk cache honours Cache-Control and revalidates with ETag/Last-Modified, so unchanged payloads
+//come back as a 304
+public class HttpClient {
+    private final static String CACHE_DIRECTORY = "http";
+    private final static long CACHE_SIZE = 10 * 1024 * 1024; //10 MiB
+
+    private final static int MAX_IDLE_CONNECTIONS = 8;
+    private final static long KEEP_ALIVE_DURATION = 5; //minutes
+    private final static int MAX_REQUESTS = 64;
+    private final static int MAX_REQUESTS_PER_HOST = 8; //radar tiles are requested in parallel from a single host
+    private final static long DNS_EXPIRATION = 5 * 60 * 1000; //5 minutes
+
+    private static HttpClient instance;
+
+    private final Cache cache;
+    private final OkHttpClient okHttpClient;
+
+    private HttpClient(Context context) {
+        cache = new Cache(new File(context.getCacheDir(), CACHE_DIRECTORY), CACHE_SIZE);
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        okHttpClient = new OkHttpClient.Builder()
+                .cache(cache)
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                .dns(new CachingDns(DNS_EXPIRATION))
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .build();
+    }
+
+    public static synchronized HttpClient getInstance(Context context) {
+        if (instance == null) {
+            instance = new HttpClient(context.getApplicationContext());
+        }
+
+        return instance;
+    }
+
+    public OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    public String fetch(Request request) throws IOException {
+        try (Response response = execute(request)) {
+            return getBody(response).string();
+        }
+    }
+
+    //Streams the body to the reader instead of buffering it into a String first
+    public <T> T fetch(Request request, BodyReader<T> bodyReader) throws IOException, JSONException {
+        try (Response response = execute(request)) {
+            return bodyReader.read(getBody(response).charStream());
+        }
+    }
+
+    //Conditional hits (304 Not Modified) are counted as hits
+    public double getCacheHitRatio() {
+        int requestCount = cache.requestCount();
+
+        return requestCount == 0 ? 0 : (double) cache.hitCount() / requestCount;
+    }
+
+    public void clearCache() {
+        try {
+            cache.evictAll();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private Response execute(Request request) throws IOException {
+        Response response = okHttpClient.newCall(request).execute();
+
+        if (!response.isSuccessful()) {
+            try {
+                String message = getBody(response).string();
+
+                throw new HttpStatusException(response.code(),
+                        message.isEmpty() ? "HTTP " + response.code() : message);
+            } finally {
+                response.close();
+            }
+        }
+
+        return response;
+    }
+
+    private ResponseBody getBody(Response response) throws IOException {
+        ResponseBody body = response.body();
+
+        if (body == null) {
+            throw new IOException("Empty response body");
+        }
+
+        return body;
+    }
+
+    //The system resolver does not reliably cache on every device, so lookups are kept for a few minutes
+    private static class CachingDns implements Dns {
+        private final Map<String, DnsEntry> entries = new HashMap<>();
+        private final long expiration;
+
+        CachingDns(long expiration) {
+            this.expiration = expiration;
+        }
+
+        @NonNull
+        @Override
+        public List<InetAddress> lookup(@NonNull String hostname) throws UnknownHostException {
+            long now = System.currentTimeMillis();
+
+            synchronized (entries) {
+                DnsEntry dnsEntry = entries.get(hostname);
+
+                if (dnsEntry != null && now - dnsEntry.resolved < expiration) {
+                    return dnsEntry.addresses;
+                }
+            }
+
+            List<InetAddress> addresses = Dns.SYSTEM.lookup(hostname);
+
+            synchronized (entries) {
+                entries.put(hostname, new DnsEntry(addresses, now));
+            }
+
+            return addresses;
+        }
+    }
+
+    private static class DnsEntry {
+        final List<InetAddress> addresses;
+        final long resolved; //timestamp, milliseconds
+
+        DnsEntry(List<InetAddress> addresses, long resolved) {
+            this.addresses = addresses;
+            this.resolved = resolved;
+        }
+    }
+
+    public interface BodyReader<T> {
+        T read(Reader reader) throws IOException, JSONException;
+    }
+}
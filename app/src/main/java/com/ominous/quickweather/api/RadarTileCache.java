@@ -0,0 +1,261 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.api;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Okio;
+
+//HTTP client for the map. Tiles are stored in their own bounded disk cache, keyed by URL (and so by
+//RainViewer path, resolution, z/x/y and theme), and can be prefetched before the radar animation plays
+public class RadarTileCache {
+    public final static int RAINVIEWER_TILE_SIZE = 256;
+
+    private final static String TAG = "RadarTileCache";
+    private final static String CACHE_DIRECTORY = "radar";
+    private final static long CACHE_SIZE = 50 * 1024 * 1024; //50 MiB
+
+    private final static String RAINVIEWER_TILE_HOST = "tilecache.rainviewer.com";
+    private final static int RAINVIEWER_TILE_MAX_AGE = 3 * 60 * 60; //seconds, frames cover the past 2 hours
+    private final static int MAX_PREFETCH_TILES = 256;
+    private final static int MAX_ZOOM = 22;
+    private final static double MAX_LATITUDE = 85.0511; //Web Mercator limit
+
+    private static RadarTileCache instance;
+
+    private final OkHttpClient okHttpClient;
+
+    private RadarTileCache(Context context) {
+        okHttpClient = HttpClient.getInstance(context)
+                .getOkHttpClient()
+                .newBuilder()
+                .cache(new Cache(new File(context.getCacheDir(), CACHE_DIRECTORY), CACHE_SIZE))
+                .addInterceptor(new RetryInterceptor())
+                .addNetworkInterceptor(chain -> {
+                    Response response = chain.proceed(chain.request());
+
+                    //A frame never changes once published, so its tiles can be reused until it ages out
+                    if (response.isSuccessful() &&
+                            RAINVIEWER_TILE_HOST.equals(chain.request().url().host())) {
+                        return response.newBuilder()
+                                .header("Cache-Control", "public, max-age=" + RAINVIEWER_TILE_MAX_AGE)
+                                .removeHeader("Pragma")
+                                .build();
+                    }
+
+                    return response;
+                })
+                .build();
+    }
+
+    public static synchronized RadarTileCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new RadarTileCache(context.getApplicationContext());
+        }
+
+        return instance;
+    }
+
+    public OkHttpClient getOkHttpClient() {
+        return okHttpClient;
+    }
+
+    //Warms every tile covering the bounds for each template, which contain {z}, {x} and {y}, at the zoom level
+    //MapLibre requests for a source with tiles of tileSize pixels.
+    //onComplete is called once every tile has either loaded or failed, on an OkHttp thread
+    public Prefetch prefetch(List<String> urlTemplates,
+                             double latNorth,
+                             double latSouth,
+                             double lonWest,
+                             double lonEast,
+                             double zoom,
+                             int tileSize,
+                             Runnable onComplete) {
+        ArrayList<Request> requests = new ArrayList<>();
+
+        for (String url : getTileUrls(urlTemplates, latNorth, latSouth, lonWest, lonEast, zoom, tileSize)) {
+            requests.add(new Request.Builder()
+                    .url(url)
+                    .build());
+        }
+
+        Prefetch prefetch = new Prefetch();
+
+        if (requests.isEmpty()) {
+            onComplete.run();
+            return prefetch;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(requests.size());
+
+        Callback callback = new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                onTileDone();
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                //The body has to be consumed for the response to be written to the cache
+                try (ResponseBody body = response.body()) {
+                    if (body != null) {
+                        body.source().readAll(Okio.blackhole());
+                    }
+                } catch (IOException e) {
+                    //Treated as a failed tile
+                }
+
+                onTileDone();
+            }
+
+            private void onTileDone() {
+                if (remaining.decrementAndGet() == 0 && !prefetch.isCanceled()) {
+                    onComplete.run();
+                }
+            }
+        };
+
+        for (Request request : requests) {
+            Call call = okHttpClient.newCall(request);
+
+            prefetch.add(call);
+            call.enqueue(callback);
+        }
+
+        return prefetch;
+    }
+
+    //Tiles are the outer loop, so every template gets the same tiles when the list is capped
+    static List<String> getTileUrls(List<String> urlTemplates,
+                                    double latNorth,
+                                    double latSouth,
+                                    double lonWest,
+                                    double lonEast,
+                                    double zoom,
+                                    int tileSize) {
+        ArrayList<String> urls = new ArrayList<>();
+
+        if (urlTemplates.isEmpty()) {
+            return urls;
+        }
+
+        int z = getTileZoom(zoom, tileSize);
+        int tileCount = 1 << z;
+
+        int xMin = getTileX(lonWest, z);
+        int xMax = getTileX(lonEast, z);
+        int yMin = getTileY(latNorth, z);
+        int yMax = getTileY(latSouth, z);
+
+        if (xMax < xMin) {
+            xMax += tileCount;
+        }
+
+        xMax = Math.min(xMax, xMin + tileCount - 1);
+
+        int maxTiles = MAX_PREFETCH_TILES / urlTemplates.size();
+        int tiles = (xMax - xMin + 1) * (yMax - yMin + 1);
+
+        if (tiles > maxTiles) {
+            Log.w(TAG, String.format(Locale.US, "Prefetching %d of %d tiles for each of %d frames",
+                    maxTiles, tiles, urlTemplates.size()));
+        }
+
+        for (int x = xMin; x <= xMax && urls.size() < maxTiles * urlTemplates.size(); x++) {
+            for (int y = yMin; y <= yMax && urls.size() < maxTiles * urlTemplates.size(); y++) {
+                for (String urlTemplate : urlTemplates) {
+                    urls.add(getTileUrl(urlTemplate, z, ((x % tileCount) + tileCount) % tileCount, y));
+                }
+            }
+        }
+
+        return urls;
+    }
+
+    //MapLibre lays out tiles as 512 pixels, so smaller tiles are requested at a higher zoom level
+    static int getTileZoom(double zoom, int tileSize) {
+        return (int) Math.max(0, Math.min(MAX_ZOOM, Math.round(zoom + Math.log(512.0 / tileSize) / Math.log(2))));
+    }
+
+    static String getTileUrl(String urlTemplate, int z, int x, int y) {
+        return urlTemplate
+                .replace("{z}", Integer.toString(z))
+                .replace("{x}", Integer.toString(x))
+                .replace("{y}", Integer.toString(y));
+    }
+
+    private static int getTileX(double longitude, int z) {
+        return (int) Math.floor((longitude + 180) / 360 * (1 << z));
+    }
+
+    private static int getTileY(double latitude, int z) {
+        double latRad = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, latitude)));
+        int y = (int) Math.floor((1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * (1 << z));
+
+        return Math.max(0, Math.min((1 << z) - 1, y));
+    }
+
+    public static String getRainViewerTileUrl(String path, String resolution, String theme) {
+        return String.format(Locale.US,
+                "https://%1$s%2$s/%3$s/{z}/{x}/{y}/%4$s/1_1.png",
+                RAINVIEWER_TILE_HOST,
+                path,
+                resolution,
+                theme);
+    }
+
+    public static class Prefetch {
+        private final List<Call> calls = new ArrayList<>();
+        private boolean isCanceled = false;
+
+        synchronized void add(Call call) {
+            calls.add(call);
+        }
+
+        public synchronized void cancel() {
+            isCanceled = true;
+
+            for (Call call : calls) {
+                call.cancel();
+            }
+        }
+
+        public synchronized boolean isCanceled() {
+            return isCanceled;
+        }
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.api;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+//Retries failed requests with exponential backoff and full jitter. Every host has a retry budget that is
+//replenished by successful requests, and a circuit breaker that fails fast while the host is down
+public class RetryInterceptor implements Interceptor {
+    private final static int MAX_RETRIES = 3;
+    private final static long BASE_DELAY = 300; //milliseconds
+    private final static long MAX_DELAY = 10000; //milliseconds
+
+    private final static double MAX_BUDGET = 10;
+    private final static double BUDGET_PER_SUCCESS = 0.2; //at most one retry for every five successes
+
+    private final static int CIRCUIT_FAILURE_THRESHOLD = 5;
+    private final static long CIRCUIT_OPEN_DURATION = 30000; //milliseconds
+
+    private final Map<String, HostState> hostStates = new HashMap<>();
+
+    @NonNull
+    @Override
+    public Response intercept(@NonNull Chain chain) throws IOException {
+        Request request = chain.request();
+        HostState hostState = getHostState(request.url().host());
+        Permit permit = hostState.acquire();
+
+        if (permit == Permit.DENIED) {
+            throw new IOException("Circuit open for " + request.url().host());
+        }
+
+        boolean isTrial = permit == Permit.TRIAL;
+
+        //The trial has to end however this call ends, or the circuit would never close again
+        try {
+            for (int attempt = 0; ; attempt++) {
+                Response response = null;
+                IOException exception = null;
+
+                try {
+                    response = chain.proceed(request);
+                } catch (IOException e) {
+                    exception = e;
+                }
+
+                if (response != null && !isRetryable(response.code())) {
+                    //Only 2xx and 3xx count as success, client errors such as 401 or 404 count as neither
+                    if (response.code() < 400) {
+                        hostState.onSuccess();
+                    }
+
+                    return response;
+                }
+
+                hostState.onFailure();
+
+                long delay = response == null ? getBackoff(attempt) : getRetryDelay(response, attempt);
+
+                if (attempt < MAX_RETRIES &&
+                        delay <= MAX_DELAY &&
+                        !chain.call().isCanceled()) {
+                    permit = hostState.acquire();
+                    isTrial |= permit == Permit.TRIAL;
+                }
+
+                if (attempt >= MAX_RETRIES ||
+                        delay > MAX_DELAY ||
+                        chain.call().isCanceled() ||
+                        permit == Permit.DENIED ||
+                        !hostState.spendRetry()) {
+                    if (response != null) {
+                        return response;
+                    } else {
+                        throw exception;
+                    }
+                }
+
+                if (response != null) {
+                    response.close();
+                }
+
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException("Retry interrupted");
+                }
+            }
+        } finally {
+            if (isTrial) {
+                hostState.endTrial();
+            }
+        }
+    }
+
+    private synchronized HostState getHostState(String host) {
+        HostState hostState = hostStates.get(host);
+
+        if (hostState == null) {
+            hostState = new HostState();
+            hostStates.put(host, hostState);
+        }
+
+        return hostState;
+    }
+
+    private static boolean isRetryable(int code) {
+        return code == 408 || code == 429 || code == 500 || code == 502 || code == 503 || code == 504;
+    }
+
+    private static long getBackoff(int attempt) {
+        return ThreadLocalRandom.current().nextLong(Math.min(MAX_DELAY, BASE_DELAY << attempt) + 1);
+    }
+
+    //Retry-After is either a number of seconds or an HTTP date
+    private static long getRetryDelay(Response response, int attempt) {
+        String retryAfter = response.header("Retry-After");
+
+        if (retryAfter != null) {
+            try {
+                return Math.max(0, Long.parseLong(retryAfter.trim()) * 1000);
+            } catch (NumberFormatException e) {
+                Date retryDate = response.headers().getDate("Retry-After");
+
+                if (retryDate != null) {
+                    return Math.max(0, retryDate.getTime() - System.currentTimeMillis());
+                }
+            }
+        }
+
+        return getBackoff(attempt);
+    }
+
+    private static class HostState {
+        private double budget = MAX_BUDGET;
+        private int consecutiveFailures = 0;
+        private long openUntil = 0; //timestamp, milliseconds
+        private boolean isTrialInFlight = false;
+
+        //Once the circuit has been open long enough, a single trial request is let through
+        synchronized Permit acquire() {
+            if (consecutiveFailures < CIRCUIT_FAILURE_THRESHOLD) {
+                return Permit.ALLOWED;
+            } else if (System.currentTimeMillis() >= openUntil && !isTrialInFlight) {
+                isTrialInFlight = true;
+                return Permit.TRIAL;
+            } else {
+                return Permit.DENIED;
+            }
+        }
+
+        synchronized void endTrial() {
+            isTrialInFlight = false;
+        }
+
+        synchronized boolean spendRetry() {
+            if (budget >= 1) {
+                budget -= 1;
+                return true;
+            }
+
+            return false;
+        }
+
+        synchronized void onSuccess() {
+            budget = Math.min(MAX_BUDGET, budget + BUDGET_PER_SUCCESS);
+            consecutiveFailures = 0;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+
+            if (consecutiveFailures >= CIRCUIT_FAILURE_THRESHOLD) {
+                openUntil = System.currentTimeMillis() + CIRCUIT_OPEN_DURATION;
+            }
+        }
+    }
+
+    private enum Permit {
+        ALLOWED,
+        TRIAL,
+        DENIED
+    }
+}
@@ -25,30 +25,26 @@ import androidx.annotation.DrawableRes;
 import androidx.annotation.StringRes;
 
 import com.ominous.quickweather.R;
+import com.ominous.quickweather.api.HttpClient;
 import com.ominous.quickweather.data.CurrentWeather;
 import com.ominous.quickweather.data.PrecipType;
+import com.ominous.quickweather.util.AstronomyHelper;
 import com.ominous.quickweather.util.WeatherUtils;
-import com.ominous.tylerutils.http.HttpException;
-import com.ominous.tylerutils.http.HttpRequest;
-import com.ominous.tylerutils.util.JsonUtils;
-import com.ominous.tylerutils.work.ParallelThreadManager;
 
 import org.json.JSONException;
-import org.json.JSONObject;
-import org.shredzone.commons.suncalc.MoonIllumination;
-import org.shredzone.commons.suncalc.MoonTimes;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
 
+import okhttp3.CacheControl;
+import okhttp3.Request;
+
 public class OpenMeteo {
-    private final static String currentApi = "%1$s/v1/forecast?latitude=%2$f&longitude=%3$f&hourly=relativehumidity_2m,dewpoint_2m,apparent_temperature,rain,showers,snowfall,surface_pressure,visibility,winddirection_10m,uv_index,is_day&current_weather=true&temperature_unit=fahrenheit&windspeed_unit=mph&precipitation_unit=inch&timeformat=unixtime&timezone=auto&forecast_days=1";
-    private final static String dailyHourlyApi = "%1$s/v1/forecast?latitude=%2$f&longitude=%3$f&hourly=weathercode,precipitation_probability,temperature_2m,rain,showers,snowfall,surface_pressure,dewpoint_2m,relativehumidity_2m,is_day,windspeed_10m,winddirection_10m,uv_index&daily=weathercode,temperature_2m_max,temperature_2m_min,uv_index_max,rain_sum,showers_sum,snowfall_sum,precipitation_probability_max,windspeed_10m_max,winddirection_10m_dominant,sunrise,sunset&temperature_unit=fahrenheit&windspeed_unit=mph&precipitation_unit=inch&timeformat=unixtime&timezone=auto&forecast_days=8";
+    //The "current" values are derived from the hourly data, so one request covers both
+    private final static String forecastApi = "%1$s/v1/forecast?latitude=%2$s&longitude=%3$s&hourly=weathercode,precipitation_probability,temperature_2m,apparent_temperature,rain,showers,snowfall,surface_pressure,visibility,dewpoint_2m,relativehumidity_2m,is_day,windspeed_10m,winddirection_10m,uv_index&daily=weathercode,temperature_2m_max,temperature_2m_min,uv_index_max,rain_sum,showers_sum,snowfall_sum,windspeed_10m_max,winddirection_10m_dominant,sunrise,sunset&current_weather=true&temperature_unit=fahrenheit&windspeed_unit=mph&precipitation_unit=inch&timeformat=unixtime&timezone=auto&forecast_days=8";
 
     private final static String USER_AGENT = "QuickWeather - https://play.google.com/store/apps/details?id=com.ominous.quickweather";
 
@@ -70,88 +66,93 @@ public class OpenMeteo {
                                             double longitude,
                                             String apiKey,
                                             String selfHostedInstance)
-            throws IOException, JSONException, InstantiationException, IllegalAccessException, HttpException {
-        OpenMeteoForecast[] forecasts = new OpenMeteoForecast[2];
-        Exception[] exceptions = new Exception[2];
+            throws IOException, JSONException, InstantiationException, IllegalAccessException {
+        return getCurrentWeather(context,
+                new double[]{latitude},
+                new double[]{longitude},
+                apiKey,
+                selfHostedInstance)[0];
+    }
 
-        try {
-            ParallelThreadManager.execute(
-                    () -> {
-                        String url = String.format(Locale.US,
-                                currentApi,
-                                selfHostedInstance.isEmpty() ? "https://api.open-meteo.com" : selfHostedInstance,
-                                latitude,
-                                longitude);
-
-                        if (!apiKey.isEmpty()) {
-                            url += "&apikey=" + apiKey;
-                        }
-
-                        try {
-                            forecasts[0] = JsonUtils.deserialize(OpenMeteoForecast.class, new JSONObject(
-                                    new HttpRequest(url)
-                                            .addHeader("User-Agent", USER_AGENT)
-                                            .fetch()
-                            ));
-                        } catch (IllegalAccessException | InstantiationException | JSONException |
-                                 HttpException | IOException e) {
-                            exceptions[0] = e;
-                        }
-                    },
-                    () -> {
-                        String url1 = String.format(Locale.US,
-                                dailyHourlyApi,
-                                selfHostedInstance.isEmpty() ? "https://api.open-meteo.com" : selfHostedInstance,
-                                latitude,
-                                longitude);
-
-                        if (!apiKey.isEmpty()) {
-                            url1 += "&apikey=" + apiKey;
-                        }
-                        try {
-                            forecasts[1] = JsonUtils.deserialize(OpenMeteoForecast.class, new JSONObject(
-                                    new HttpRequest(url1)
-                                            .addHeader("User-Agent", USER_AGENT)
-                                            .fetch()
-                                    ));
-                        } catch (IllegalAccessException | InstantiationException | JSONException |
-                                 HttpException | IOException e) {
-                            exceptions[1] = e;
-                        }
-                    }
-            );
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
+    //Open-Meteo accepts comma-separated coordinates, so multiple locations are fetched with the same request
+    public CurrentWeather[] getCurrentWeather(Context context,
+                                              double[] latitudes,
+                                              double[] longitudes,
+                                              String apiKey,
+                                              String selfHostedInstance)
+            throws IOException, JSONException, InstantiationException, IllegalAccessException {
+        OpenMeteoForecast[] forecasts = getForecasts(context, forecastApi, latitudes, longitudes, apiKey, selfHostedInstance);
+
+        CurrentWeather[] currentWeathers = new CurrentWeather[latitudes.length];
+
+        for (int i = 0, l = latitudes.length; i < l; i++) {
+            currentWeathers[i] = toCurrentWeather(context,
+                    latitudes[i],
+                    longitudes[i],
+                    forecasts[i]);
         }
 
-        for (Exception e : exceptions) {
-            if (e != null) {
-                if (e instanceof IOException) {
-                    throw (IOException) e;
-                } else if (e instanceof JSONException) {
-                    throw (JSONException) e;
-                } else if (e instanceof InstantiationException) {
-                    throw (InstantiationException) e;
-                } else if (e instanceof IllegalAccessException) {
-                    throw (IllegalAccessException) e;
-                } else if (e instanceof HttpException) {
-                    throw (HttpException) e;
-                } else {
-                    throw new RuntimeException(e);
-                }
+        return currentWeathers;
+    }
+
+    private OpenMeteoForecast[] getForecasts(Context context,
+                                             String apiFormat,
+                                             double[] latitudes,
+                                             double[] longitudes,
+                                             String apiKey,
+                                             String selfHostedInstance)
+            throws IOException, JSONException {
+        Request request = new Request.Builder()
+                .url(getUrl(apiFormat, latitudes, longitudes, apiKey, selfHostedInstance))
+                .header("User-Agent", USER_AGENT)
+                .build();
+
+        return HttpClient.getInstance(context)
+                .fetch(request, reader -> new OpenMeteoForecastParser().parse(reader, latitudes.length));
+    }
+
+    private String getUrl(String apiFormat,
+                          double[] latitudes,
+                          double[] longitudes,
+                          String apiKey,
+                          String selfHostedInstance) {
+        StringBuilder latitudeList = new StringBuilder();
+        StringBuilder longitudeList = new StringBuilder();
+
+        for (int i = 0, l = latitudes.length; i < l; i++) {
+            if (i > 0) {
+                latitudeList.append(',');
+                longitudeList.append(',');
             }
+
+            latitudeList.append(String.format(Locale.US, "%f", latitudes[i]));
+            longitudeList.append(String.format(Locale.US, "%f", longitudes[i]));
+        }
+
+        String url = String.format(Locale.US,
+                apiFormat,
+                selfHostedInstance.isEmpty() ? "https://api.open-meteo.com" : selfHostedInstance,
+                latitudeList,
+                longitudeList);
+
+        if (!apiKey.isEmpty()) {
+            url += "&apikey=" + apiKey;
         }
 
-        OpenMeteoForecast openMeteoCurrent = forecasts[0];
-        OpenMeteoForecast openMeteoDailyHourly = forecasts[1];
+        return url;
+    }
 
+    private CurrentWeather toCurrentWeather(Context context,
+                                            double latitude,
+                                            double longitude,
+                                            OpenMeteoForecast openMeteoForecast) {
         WeatherUtils weatherUtils = WeatherUtils.getInstance(context);
 
         long currentTimestamp = Calendar.getInstance(TimeZone.getTimeZone("GMT")).getTimeInMillis();
         int thisHour = 0;
 
-        for (int i = 0, l = openMeteoCurrent.hourly.time.length; i < l; i++) {
-            if (currentTimestamp > openMeteoCurrent.hourly.time[i] * 1000) {
+        for (int i = 0, l = openMeteoForecast.hourly.time.length; i < l; i++) {
+            if (currentTimestamp > openMeteoForecast.hourly.time[i] * 1000) {
                 thisHour = i;
             } else {
                 break;
@@ -160,38 +161,38 @@ public class OpenMeteo {
 
         CurrentWeather currentWeather = new CurrentWeather();
 
-        currentWeather.timezone = TimeZone.getTimeZone(openMeteoCurrent.timezone);
-        currentWeather.timestamp = Calendar.getInstance(TimeZone.getTimeZone(openMeteoCurrent.timezone)).getTimeInMillis() / 1000;
+        currentWeather.timezone = TimeZone.getTimeZone(openMeteoForecast.timezone);
+        currentWeather.timestamp = Calendar.getInstance(TimeZone.getTimeZone(openMeteoForecast.timezone)).getTimeInMillis() / 1000;
 
-        if (openMeteoCurrent.current_weather != null && openMeteoCurrent.hourly != null) {
-            WeatherCode weatherCode = WeatherCode.from(openMeteoCurrent.current_weather.weathercode, WeatherCode.ERROR);
+        if (openMeteoForecast.current_weather != null && openMeteoForecast.hourly != null) {
+            WeatherCode weatherCode = WeatherCode.from(openMeteoForecast.current_weather.weathercode, WeatherCode.ERROR);
 
             double precipitationIntensity = weatherUtils.getPrecipitationIntensity(
-                    openMeteoCurrent.hourly.rain[thisHour] + openMeteoCurrent.hourly.showers[thisHour],
-                    openMeteoCurrent.hourly.snowfall[thisHour]) * 25.4;
+                    openMeteoForecast.hourly.rain[thisHour] + openMeteoForecast.hourly.showers[thisHour],
+                    openMeteoForecast.hourly.snowfall[thisHour]) * 25.4;
             PrecipType precipitationType = weatherUtils.getPrecipitationType(
-                    openMeteoCurrent.hourly.rain[thisHour] + openMeteoCurrent.hourly.showers[thisHour],
-                    openMeteoCurrent.hourly.snowfall[thisHour]);
+                    openMeteoForecast.hourly.rain[thisHour] + openMeteoForecast.hourly.showers[thisHour],
+                    openMeteoForecast.hourly.snowfall[thisHour]);
 
             currentWeather.current = new CurrentWeather.DataPoint(
-                    openMeteoCurrent.hourly.time[thisHour],
-                    openMeteoCurrent.current_weather.temperature,
-                    openMeteoCurrent.hourly.apparent_temperature[thisHour],
-                    Math.min((int) (openMeteoCurrent.hourly.visibility[thisHour] * 0.3048), 10000), //ft to m, cap of 1000m
-                    openMeteoCurrent.hourly.relativehumidity_2m[thisHour],
-                    openMeteoCurrent.current_weather.windspeed,
-                    openMeteoCurrent.current_weather.winddirection,
-                    (int) openMeteoCurrent.hourly.surface_pressure[thisHour],
-                    openMeteoCurrent.hourly.dewpoint_2m[thisHour],
-                    openMeteoCurrent.hourly.uv_index[thisHour],
+                    openMeteoForecast.hourly.time[thisHour],
+                    openMeteoForecast.current_weather.temperature,
+                    openMeteoForecast.hourly.apparent_temperature[thisHour],
+                    Math.min((int) (openMeteoForecast.hourly.visibility[thisHour] * 0.3048), 10000), //ft to m, cap of 1000m
+                    openMeteoForecast.hourly.relativehumidity_2m[thisHour],
+                    openMeteoForecast.current_weather.windspeed,
+                    openMeteoForecast.current_weather.winddirection,
+                    (int) openMeteoForecast.hourly.surface_pressure[thisHour],
+                    openMeteoForecast.hourly.dewpoint_2m[thisHour],
+                    openMeteoForecast.hourly.uv_index[thisHour],
                     getStandardWeatherCode(weatherCode),
-                    getWeatherIconRes(weatherCode, openMeteoCurrent.hourly.is_day[thisHour] == 1),
+                    getWeatherIconRes(weatherCode, openMeteoForecast.hourly.is_day[thisHour] == 1),
                     weatherUtils
                             .getWeatherDescription(new String[]{context.getString(getDescriptionResForWeatherCode(weatherCode))}),
                     weatherUtils
                             .getWeatherDescription(new String[]{context.getString(getDescriptionResForWeatherCode(weatherCode))},
-                                    openMeteoCurrent.hourly.dewpoint_2m[thisHour],
-                                    openMeteoCurrent.current_weather.windspeed,
+                                    openMeteoForecast.hourly.dewpoint_2m[thisHour],
+                                    openMeteoForecast.current_weather.windspeed,
                                     0,
                                     precipitationIntensity,
                                     precipitationType,
@@ -200,74 +201,56 @@ public class OpenMeteo {
                     precipitationType);
         }
 
-        if (openMeteoDailyHourly.daily != null && openMeteoCurrent.hourly != null) {
-            currentWeather.daily = new CurrentWeather.DataPoint[openMeteoDailyHourly.daily.time.length];
-
-            for (int i = 0, l = openMeteoDailyHourly.daily.time.length; i < l; i++) {
-                ArrayList<Double> pressureArrayList = new ArrayList<>(24);
-                ArrayList<Double> humidityArrayList = new ArrayList<>(24);
-                ArrayList<Double> dewPointArrayList = new ArrayList<>(24);
-
-                //TODO calculate the daily pop?
-                for (int ii = 0, ll = openMeteoDailyHourly.hourly.time.length; ii < ll && pressureArrayList.size() < 24; ii++) {
-                    if (openMeteoDailyHourly.hourly.time[ii] >= openMeteoDailyHourly.daily.time[i] &&
-                            (i + 1 >= openMeteoDailyHourly.daily.time.length ||
-                                    openMeteoDailyHourly.hourly.time[ii] < openMeteoDailyHourly.daily.time[i + 1])) {
-                        pressureArrayList.add(openMeteoDailyHourly.hourly.surface_pressure[ii]);
-                        humidityArrayList.add((double) openMeteoDailyHourly.hourly.relativehumidity_2m[ii]);
-                        dewPointArrayList.add(openMeteoDailyHourly.hourly.dewpoint_2m[ii]);
-                    }
-                }
+        if (openMeteoForecast.daily != null && openMeteoForecast.hourly != null) {
+            currentWeather.daily = new CurrentWeather.DataPoint[openMeteoForecast.daily.time.length];
+
+            OpenMeteoDailySummary dailySummary = new OpenMeteoDailySummary(openMeteoForecast.daily.time, openMeteoForecast.hourly.time);
+            OpenMeteoDailySummary.Statistics pressureStatistics = dailySummary.summarize(openMeteoForecast.hourly.surface_pressure);
+            OpenMeteoDailySummary.Statistics humidityStatistics = dailySummary.summarize(openMeteoForecast.hourly.relativehumidity_2m);
+            OpenMeteoDailySummary.Statistics dewPointStatistics = dailySummary.summarize(openMeteoForecast.hourly.dewpoint_2m);
+            //Same as Open-Meteo's precipitation_probability_max, which is no longer requested
+            OpenMeteoDailySummary.Statistics popStatistics = dailySummary.summarize(openMeteoForecast.hourly.precipitation_probability);
 
-                int dailyPressure = (int) summarizeData(pressureArrayList);
-                int dailyHumidity = (int) summarizeData(humidityArrayList);
-                double dailyDewPoint = summarizeData(dewPointArrayList);
+            for (int i = 0, l = openMeteoForecast.daily.time.length; i < l; i++) {
+                //TODO use median instead of mean?
+                int dailyPressure = (int) pressureStatistics.mean[i];
+                int dailyHumidity = (int) humidityStatistics.mean[i];
+                double dailyDewPoint = dewPointStatistics.mean[i];
+                int dailyPop = Double.isNaN(popStatistics.max[i]) ? 0 : (int) popStatistics.max[i];
 
                 double precipitationIntensity = weatherUtils.getPrecipitationIntensity(
-                        openMeteoDailyHourly.daily.rain_sum[i] + openMeteoDailyHourly.daily.showers_sum[i],
-                        openMeteoDailyHourly.daily.snowfall_sum[i]) * 25.4;
+                        openMeteoForecast.daily.rain_sum[i] + openMeteoForecast.daily.showers_sum[i],
+                        openMeteoForecast.daily.snowfall_sum[i]) * 25.4;
                 PrecipType precipitationType = weatherUtils.getPrecipitationType(
-                        openMeteoDailyHourly.daily.rain_sum[i] + openMeteoDailyHourly.daily.showers_sum[i],
-                        openMeteoDailyHourly.daily.snowfall_sum[i]);
+                        openMeteoForecast.daily.rain_sum[i] + openMeteoForecast.daily.showers_sum[i],
+                        openMeteoForecast.daily.snowfall_sum[i]);
 
                 //TODO calculate the daily weathercode aggregation? currently it chooses the highest value
-                WeatherCode dailyWeatherCode = WeatherCode.from(openMeteoDailyHourly.daily.weathercode[i], WeatherCode.ERROR);
+                WeatherCode dailyWeatherCode = WeatherCode.from(openMeteoForecast.daily.weathercode[i], WeatherCode.ERROR);
 
                 Calendar c = Calendar.getInstance(currentWeather.timezone);
 
-                c.setTimeInMillis(openMeteoDailyHourly.daily.time[i] * 1000);
+                c.setTimeInMillis(openMeteoForecast.daily.time[i] * 1000);
                 c.add(Calendar.MILLISECOND, -currentWeather.timezone.getOffset(c.getTimeInMillis()));
                 c.set(Calendar.HOUR_OF_DAY, 0);
                 c.set(Calendar.MINUTE, 0);
                 c.set(Calendar.SECOND, 0);
                 c.set(Calendar.MILLISECOND, 0);
 
-                MoonTimes moonTimes = MoonTimes.compute()
-                        .timezone(currentWeather.timezone)
-                        .on(c)
-                        .at(latitude, longitude)
-                        .execute();
-
-                MoonIllumination moonIllumination = MoonIllumination.compute()
-                        .timezone(currentWeather.timezone)
-                        .on(c)
-                        .execute();
-
-                double moonPhase = (moonIllumination.getPhase() + 180.0) / 360.0;
-                Date moonRise = moonTimes.getRise();
-                Date moonSet = moonTimes.getSet();
+                AstronomyHelper.MoonInfo moonInfo = AstronomyHelper.getInstance()
+                        .getMoonInfo(currentWeather.timezone, c, latitude, longitude);
 
                 currentWeather.daily[i] = new CurrentWeather.DataPoint(
-                        openMeteoDailyHourly.daily.time[i],
-                        openMeteoDailyHourly.daily.temperature_2m_max[i],
-                        openMeteoDailyHourly.daily.temperature_2m_min[i],
+                        openMeteoForecast.daily.time[i],
+                        openMeteoForecast.daily.temperature_2m_max[i],
+                        openMeteoForecast.daily.temperature_2m_min[i],
                         dailyHumidity,
-                        openMeteoDailyHourly.daily.windspeed_10m_max[i],
-                        openMeteoDailyHourly.daily.winddirection_10m_dominant[i],
+                        openMeteoForecast.daily.windspeed_10m_max[i],
+                        openMeteoForecast.daily.winddirection_10m_dominant[i],
                         dailyPressure,
                         dailyDewPoint,
-                        openMeteoDailyHourly.daily.uv_index_max[i],
-                        openMeteoDailyHourly.daily.precipitation_probability_max[i],
+                        openMeteoForecast.daily.uv_index_max[i],
+                        dailyPop,
                         getStandardWeatherCode(dailyWeatherCode),
                         getWeatherIconRes(dailyWeatherCode, true),
                         weatherUtils
@@ -276,41 +259,41 @@ public class OpenMeteo {
                                 .getWeatherDescription(
                                         new String[]{context.getString(getDescriptionResForWeatherCode(dailyWeatherCode))},
                                         dailyDewPoint,
-                                        openMeteoDailyHourly.daily.windspeed_10m_max[i],
-                                        openMeteoDailyHourly.daily.precipitation_probability_max[i],
+                                        openMeteoForecast.daily.windspeed_10m_max[i],
+                                        dailyPop,
                                         precipitationIntensity,
                                         precipitationType,
                                         true),
                         precipitationIntensity,
                         precipitationType,
-                        openMeteoDailyHourly.daily.sunrise[i],
-                        openMeteoDailyHourly.daily.sunset[i],
-                        moonRise == null ? 0L : moonRise.getTime() / 1000L,
-                        moonSet == null ? 0L : moonSet.getTime() / 1000L,
-                        moonPhase);
+                        openMeteoForecast.daily.sunrise[i],
+                        openMeteoForecast.daily.sunset[i],
+                        moonInfo.moonrise,
+                        moonInfo.moonset,
+                        moonInfo.moonPhase);
             }
         }
 
-        if (openMeteoCurrent.hourly != null) {
+        if (openMeteoForecast.hourly != null) {
             ArrayList<CurrentWeather.DataPoint> hourlyList = new ArrayList<>();
 
-            for (int i = thisHour, l = openMeteoDailyHourly.hourly.time.length; i < l && (i - thisHour) < 48; i++) {
+            for (int i = thisHour, l = openMeteoForecast.hourly.time.length; i < l && (i - thisHour) < 48; i++) {
 
                 hourlyList.add(new CurrentWeather.DataPoint(
-                        openMeteoDailyHourly.hourly.time[i],
-                        openMeteoDailyHourly.hourly.temperature_2m[i],
-                        getStandardWeatherCode(WeatherCode.from(openMeteoDailyHourly.hourly.weathercode[i], WeatherCode.ERROR)),
-                        openMeteoDailyHourly.hourly.relativehumidity_2m[i],
-                        openMeteoDailyHourly.hourly.windspeed_10m[i],
-                        openMeteoDailyHourly.hourly.winddirection_10m[i],
-                        openMeteoDailyHourly.hourly.uv_index[i],
-                        openMeteoDailyHourly.hourly.precipitation_probability[i],
+                        openMeteoForecast.hourly.time[i],
+                        openMeteoForecast.hourly.temperature_2m[i],
+                        getStandardWeatherCode(WeatherCode.from(openMeteoForecast.hourly.weathercode[i], WeatherCode.ERROR)),
+                        openMeteoForecast.hourly.relativehumidity_2m[i],
+                        openMeteoForecast.hourly.windspeed_10m[i],
+                        openMeteoForecast.hourly.winddirection_10m[i],
+                        openMeteoForecast.hourly.uv_index[i],
+                        openMeteoForecast.hourly.precipitation_probability[i],
                         weatherUtils.getPrecipitationIntensity(
-                                openMeteoDailyHourly.hourly.rain[i] + openMeteoDailyHourly.hourly.showers[i],
-                                openMeteoDailyHourly.hourly.snowfall[i]) * 25.4,
+                                openMeteoForecast.hourly.rain[i] + openMeteoForecast.hourly.showers[i],
+                                openMeteoForecast.hourly.snowfall[i]) * 25.4,
                         weatherUtils.getPrecipitationType(
-                                openMeteoDailyHourly.hourly.rain[i] + openMeteoDailyHourly.hourly.showers[i],
-                                openMeteoDailyHourly.hourly.snowfall[i])));
+                                openMeteoForecast.hourly.rain[i] + openMeteoForecast.hourly.showers[i],
+                                openMeteoForecast.hourly.snowfall[i])));
             }
 
             currentWeather.hourly = hourlyList.toArray(new CurrentWeather.DataPoint[0]);
@@ -318,22 +301,22 @@ public class OpenMeteo {
 
         ArrayList<CurrentWeather.DataPoint> forecastDataList = new ArrayList<>(48); // 6 days, every 3 hours
 
-        for (int i = 0, l = openMeteoDailyHourly.hourly.time.length; i < l; i += 3) {
-            if (openMeteoDailyHourly.hourly.time[i] * 1000 > currentTimestamp) {
-                WeatherCode hourlyWeatherCode = WeatherCode.from(openMeteoDailyHourly.hourly.weathercode[i], WeatherCode.ERROR);
+        for (int i = 0, l = openMeteoForecast.hourly.time.length; i < l; i += 3) {
+            if (openMeteoForecast.hourly.time[i] * 1000 > currentTimestamp) {
+                WeatherCode hourlyWeatherCode = WeatherCode.from(openMeteoForecast.hourly.weathercode[i], WeatherCode.ERROR);
 
                 forecastDataList.add(new CurrentWeather.DataPoint(
-                        openMeteoDailyHourly.hourly.time[i],
-                        openMeteoDailyHourly.hourly.temperature_2m[i],
-                        getWeatherIconRes(hourlyWeatherCode, openMeteoDailyHourly.hourly.is_day[i] == 1),
+                        openMeteoForecast.hourly.time[i],
+                        openMeteoForecast.hourly.temperature_2m[i],
+                        getWeatherIconRes(hourlyWeatherCode, openMeteoForecast.hourly.is_day[i] == 1),
                         context.getString(getDescriptionResForWeatherCode(hourlyWeatherCode)),
-                        openMeteoDailyHourly.hourly.precipitation_probability[i],
+                        openMeteoForecast.hourly.precipitation_probability[i],
                         weatherUtils.getPrecipitationIntensity(
-                                openMeteoDailyHourly.hourly.rain[i] + openMeteoDailyHourly.hourly.showers[i],
-                                openMeteoDailyHourly.hourly.snowfall[i]) * 25.4,
+                                openMeteoForecast.hourly.rain[i] + openMeteoForecast.hourly.showers[i],
+                                openMeteoForecast.hourly.snowfall[i]) * 25.4,
                         weatherUtils.getPrecipitationType(
-                                openMeteoDailyHourly.hourly.rain[i] + openMeteoDailyHourly.hourly.showers[i],
-                                openMeteoDailyHourly.hourly.snowfall[i])
+                                openMeteoForecast.hourly.rain[i] + openMeteoForecast.hourly.showers[i],
+                                openMeteoForecast.hourly.snowfall[i])
                 ));
             }
         }
@@ -343,24 +326,21 @@ public class OpenMeteo {
         return currentWeather;
     }
 
-    public boolean testConnection(String selfHostedInstance, String apiKey) {
+    public boolean testConnection(Context context, String selfHostedInstance, String apiKey) {
         try {
-            String url = String.format(Locale.US,
-                    currentApi,
-                    selfHostedInstance.isEmpty() ? "https://api.open-meteo.com" : selfHostedInstance,
-                    33.749,
-                    -84.388);
-
-            if (!apiKey.isEmpty()) {
-                url += "&apikey=" + apiKey;
-            }
-
-            new HttpRequest(url)
-                    .addHeader("User-Agent", USER_AGENT)
-                    .fetch();
+            //A cached response would not prove that the instance is reachable
+            HttpClient.getInstance(context).fetch(new Request.Builder()
+                    .url(getUrl(forecastApi,
+                            new double[]{33.749},
+                            new double[]{-84.388},
+                            apiKey,
+                            selfHostedInstance))
+                    .header("User-Agent", USER_AGENT)
+                    .cacheControl(CacheControl.FORCE_NETWORK)
+                    .build());
 
             return true;
-        } catch (HttpException | IOException e) {
+        } catch (IOException e) {
             //TODO differentiate between connection issue and api key issue
             return false;
         }
@@ -530,17 +510,6 @@ public class OpenMeteo {
         return R.drawable.ic_error_outline_white_24dp;
     }
 
-    //TODO use median instead of mean?
-    private double summarizeData(List<Double> data) {
-        double total = 0;
-
-        for (double datum : data) {
-            total += datum;
-        }
-
-        return total / data.size();
-    }
-
     private enum WeatherCode {
         CLEARSKY(0),
         MAINLYCLEAR(1),
@@ -0,0 +1,125 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.api.openmeteo;
+
+import java.util.Arrays;
+
+//Buckets the hourly data into days once, then summarizes any hourly variable per day
+public class OpenMeteoDailySummary {
+    private final static int MAX_HOURS_PER_DAY = 24;
+
+    private final int[] dayStart;
+    private final int[] dayEnd;
+    private final double[] scratch = new double[MAX_HOURS_PER_DAY];
+
+    //Both time arrays are sorted, so a single pass assigns every hour to its day
+    public OpenMeteoDailySummary(long[] dailyTime, long[] hourlyTime) {
+        dayStart = new int[dailyTime.length];
+        dayEnd = new int[dailyTime.length];
+
+        int hour = 0;
+
+        for (int day = 0, days = dailyTime.length, hours = hourlyTime.length; day < days; day++) {
+            while (hour < hours && hourlyTime[hour] < dailyTime[day]) {
+                hour++;
+            }
+
+            dayStart[day] = hour;
+
+            while (hour < hours &&
+                    (day + 1 >= days || hourlyTime[hour] < dailyTime[day + 1])) {
+                hour++;
+            }
+
+            dayEnd[day] = Math.min(hour, dayStart[day] + MAX_HOURS_PER_DAY);
+        }
+    }
+
+    public Statistics summarize(double[] hourlyData) {
+        Statistics statistics = new Statistics(dayStart.length);
+
+        for (int day = 0, days = dayStart.length; day < days; day++) {
+            int size = 0;
+
+            for (int hour = dayStart[day]; hour < dayEnd[day]; hour++) {
+                scratch[size++] = hourlyData[hour];
+            }
+
+            statistics.set(day, scratch, size);
+        }
+
+        return statistics;
+    }
+
+    public Statistics summarize(int[] hourlyData) {
+        Statistics statistics = new Statistics(dayStart.length);
+
+        for (int day = 0, days = dayStart.length; day < days; day++) {
+            int size = 0;
+
+            for (int hour = dayStart[day]; hour < dayEnd[day]; hour++) {
+                scratch[size++] = hourlyData[hour];
+            }
+
+            statistics.set(day, scratch, size);
+        }
+
+        return statistics;
+    }
+
+    //Days without any hourly data are NaN
+    public static class Statistics {
+        public final double[] mean;
+        public final double[] median;
+        public final double[] min;
+        public final double[] max;
+
+        Statistics(int days) {
+            mean = new double[days];
+            median = new double[days];
+            min = new double[days];
+            max = new double[days];
+        }
+
+        private void set(int day, double[] values, int size) {
+            if (size == 0) {
+                mean[day] = Double.NaN;
+                median[day] = Double.NaN;
+                min[day] = Double.NaN;
+                max[day] = Double.NaN;
+            } else {
+                double total = 0;
+
+                for (int i = 0; i < size; i++) {
+                    total += values[i];
+                }
+
+                Arrays.sort(values, 0, size);
+
+                mean[day] = total / size;
+                median[day] = size % 2 == 1 ?
+                        values[size / 2] :
+                        (values[size / 2 - 1] + values[size / 2]) / 2;
+                min[day] = values[0];
+                max[day] = values[size - 1];
+            }
+        }
+    }
+}
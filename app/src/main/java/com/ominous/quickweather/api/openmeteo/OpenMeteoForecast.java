@@ -60,7 +60,6 @@ public class OpenMeteoForecast {
         public double[] rain_sum;
         public double[] showers_sum;
         public double[] snowfall_sum;
-        public int[] precipitation_probability_max;
         public double[] windspeed_10m_max;
         public int[] winddirection_10m_dominant;
         public long[] sunrise;
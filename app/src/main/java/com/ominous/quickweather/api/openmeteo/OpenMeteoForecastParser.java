@@ -0,0 +1,323 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.api.openmeteo;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+//Pull parser that fills OpenMeteoForecast directly, without building a JSONObject tree first
+public class OpenMeteoForecastParser {
+    private final static int INITIAL_CAPACITY = 192; // 8 days, every hour
+
+    private long[] longBuffer = new long[INITIAL_CAPACITY];
+    private double[] doubleBuffer = new double[INITIAL_CAPACITY];
+
+    //Open-Meteo responds with an object for a single location and an array for multiple locations
+    public OpenMeteoForecast[] parse(Reader reader, int count) throws IOException, JSONException {
+        OpenMeteoForecast[] forecasts = new OpenMeteoForecast[count];
+
+        try (JsonReader jsonReader = new JsonReader(reader)) {
+            if (jsonReader.peek() == JsonToken.BEGIN_ARRAY) {
+                int i = 0;
+
+                jsonReader.beginArray();
+
+                while (jsonReader.hasNext()) {
+                    if (i >= count) {
+                        throw new JSONException("Received more than " + count + " locations");
+                    }
+
+                    forecasts[i++] = readForecast(jsonReader);
+                }
+
+                jsonReader.endArray();
+
+                if (i != count) {
+                    throw new JSONException("Expected " + count + " locations, received " + i);
+                }
+            } else if (count == 1) {
+                forecasts[0] = readForecast(jsonReader);
+            } else {
+                throw new JSONException("Expected " + count + " locations, received 1");
+            }
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JSONException(e.getMessage());
+        }
+
+        return forecasts;
+    }
+
+    private OpenMeteoForecast readForecast(JsonReader jsonReader) throws IOException {
+        OpenMeteoForecast forecast = new OpenMeteoForecast();
+
+        jsonReader.beginObject();
+
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "timezone":
+                    forecast.timezone = jsonReader.nextString();
+                    break;
+                case "hourly":
+                    forecast.hourly = readHourly(jsonReader);
+                    break;
+                case "daily":
+                    forecast.daily = readDaily(jsonReader);
+                    break;
+                case "current_weather":
+                    forecast.current_weather = readCurrent(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+
+        jsonReader.endObject();
+
+        return forecast;
+    }
+
+    private OpenMeteoForecast.HourlyData readHourly(JsonReader jsonReader) throws IOException {
+        OpenMeteoForecast.HourlyData hourly = new OpenMeteoForecast.HourlyData();
+
+        jsonReader.beginObject();
+
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "time":
+                    hourly.time = readLongArray(jsonReader);
+                    break;
+                case "relativehumidity_2m":
+                    hourly.relativehumidity_2m = readIntArray(jsonReader);
+                    break;
+                case "dewpoint_2m":
+                    hourly.dewpoint_2m = readDoubleArray(jsonReader);
+                    break;
+                case "apparent_temperature":
+                    hourly.apparent_temperature = readDoubleArray(jsonReader);
+                    break;
+                case "rain":
+                    hourly.rain = readDoubleArray(jsonReader);
+                    break;
+                case "showers":
+                    hourly.showers = readDoubleArray(jsonReader);
+                    break;
+                case "snowfall":
+                    hourly.snowfall = readDoubleArray(jsonReader);
+                    break;
+                case "temperature_2m":
+                    hourly.temperature_2m = readDoubleArray(jsonReader);
+                    break;
+                case "surface_pressure":
+                    hourly.surface_pressure = readDoubleArray(jsonReader);
+                    break;
+                case "visibility":
+                    hourly.visibility = readDoubleArray(jsonReader);
+                    break;
+                case "uv_index":
+                    hourly.uv_index = readDoubleArray(jsonReader);
+                    break;
+                case "is_day":
+                    hourly.is_day = readIntArray(jsonReader);
+                    break;
+                case "weathercode":
+                    hourly.weathercode = readIntArray(jsonReader);
+                    break;
+                case "precipitation_probability":
+                    hourly.precipitation_probability = readIntArray(jsonReader);
+                    break;
+                case "windspeed_10m":
+                    hourly.windspeed_10m = readDoubleArray(jsonReader);
+                    break;
+                case "winddirection_10m":
+                    hourly.winddirection_10m = readIntArray(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+
+        jsonReader.endObject();
+
+        return hourly;
+    }
+
+    private OpenMeteoForecast.DailyData readDaily(JsonReader jsonReader) throws IOException {
+        OpenMeteoForecast.DailyData daily = new OpenMeteoForecast.DailyData();
+
+        jsonReader.beginObject();
+
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "time":
+                    daily.time = readLongArray(jsonReader);
+                    break;
+                case "weathercode":
+                    daily.weathercode = readIntArray(jsonReader);
+                    break;
+                case "temperature_2m_max":
+                    daily.temperature_2m_max = readDoubleArray(jsonReader);
+                    break;
+                case "temperature_2m_min":
+                    daily.temperature_2m_min = readDoubleArray(jsonReader);
+                    break;
+                case "uv_index_max":
+                    daily.uv_index_max = readDoubleArray(jsonReader);
+                    break;
+                case "rain_sum":
+                    daily.rain_sum = readDoubleArray(jsonReader);
+                    break;
+                case "showers_sum":
+                    daily.showers_sum = readDoubleArray(jsonReader);
+                    break;
+                case "snowfall_sum":
+                    daily.snowfall_sum = readDoubleArray(jsonReader);
+                    break;
+                case "windspeed_10m_max":
+                    daily.windspeed_10m_max = readDoubleArray(jsonReader);
+                    break;
+                case "winddirection_10m_dominant":
+                    daily.winddirection_10m_dominant = readIntArray(jsonReader);
+                    break;
+                case "sunrise":
+                    daily.sunrise = readLongArray(jsonReader);
+                    break;
+                case "sunset":
+                    daily.sunset = readLongArray(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+
+        jsonReader.endObject();
+
+        return daily;
+    }
+
+    private OpenMeteoForecast.CurrentData readCurrent(JsonReader jsonReader) throws IOException {
+        OpenMeteoForecast.CurrentData current = new OpenMeteoForecast.CurrentData();
+
+        jsonReader.beginObject();
+
+        while (jsonReader.hasNext()) {
+            switch (jsonReader.nextName()) {
+                case "temperature":
+                    current.temperature = readDouble(jsonReader);
+                    break;
+                case "windspeed":
+                    current.windspeed = readDouble(jsonReader);
+                    break;
+                case "winddirection":
+                    current.winddirection = (int) readDouble(jsonReader);
+                    break;
+                case "weathercode":
+                    current.weathercode = (int) readDouble(jsonReader);
+                    break;
+                default:
+                    jsonReader.skipValue();
+            }
+        }
+
+        jsonReader.endObject();
+
+        return current;
+    }
+
+    //Missing values are sent as null, which are read as 0
+    private double readDouble(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return 0;
+        }
+
+        return jsonReader.nextDouble();
+    }
+
+    private double[] readDoubleArray(JsonReader jsonReader) throws IOException {
+        int size = 0;
+
+        jsonReader.beginArray();
+
+        while (jsonReader.hasNext()) {
+            if (size == doubleBuffer.length) {
+                doubleBuffer = Arrays.copyOf(doubleBuffer, size * 2);
+            }
+
+            doubleBuffer[size++] = readDouble(jsonReader);
+        }
+
+        jsonReader.endArray();
+
+        return Arrays.copyOf(doubleBuffer, size);
+    }
+
+    private int[] readIntArray(JsonReader jsonReader) throws IOException {
+        int size = 0;
+
+        jsonReader.beginArray();
+
+        while (jsonReader.hasNext()) {
+            if (size == doubleBuffer.length) {
+                doubleBuffer = Arrays.copyOf(doubleBuffer, size * 2);
+            }
+
+            doubleBuffer[size++] = readDouble(jsonReader);
+        }
+
+        jsonReader.endArray();
+
+        int[] result = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            result[i] = (int) doubleBuffer[i];
+        }
+
+        return result;
+    }
+
+    private long[] readLongArray(JsonReader jsonReader) throws IOException {
+        int size = 0;
+
+        jsonReader.beginArray();
+
+        while (jsonReader.hasNext()) {
+            if (size == longBuffer.length) {
+                longBuffer = Arrays.copyOf(longBuffer, size * 2);
+            }
+
+            if (jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.nextNull();
+                longBuffer[size++] = 0;
+            } else {
+                longBuffer[size++] = jsonReader.nextLong();
+            }
+        }
+
+        jsonReader.endArray();
+
+        return Arrays.copyOf(longBuffer, size);
+    }
+}
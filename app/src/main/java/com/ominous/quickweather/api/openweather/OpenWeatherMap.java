@@ -23,12 +23,12 @@ import android.content.Context;
 import android.content.res.Resources;
 
 import com.ominous.quickweather.R;
+import com.ominous.quickweather.api.HttpClient;
+import com.ominous.quickweather.api.HttpStatusException;
 import com.ominous.quickweather.data.CurrentWeather;
 import com.ominous.quickweather.data.PrecipType;
 import com.ominous.quickweather.pref.OwmApiVersion;
 import com.ominous.quickweather.util.WeatherUtils;
-import com.ominous.tylerutils.http.HttpException;
-import com.ominous.tylerutils.http.HttpRequest;
 import com.ominous.tylerutils.util.JsonUtils;
 import com.ominous.tylerutils.util.StringUtils;
 import com.ominous.tylerutils.work.ParallelThreadManager;
@@ -47,11 +47,14 @@ import java.util.TimeZone;
 
 import androidx.annotation.DrawableRes;
 import androidx.annotation.NonNull;
+import okhttp3.CacheControl;
+import okhttp3.Request;
 
 public class OpenWeatherMap {
-    private final static String uriFormatOneCall = "https://api.openweathermap.org/data/%5$s/onecall?appid=%1$s&lat=%2$f&lon=%3$f&lang=%4$s&units=imperial";
-    private final static String uriFormatForecast = "https://api.openweathermap.org/data/2.5/forecast?appid=%1$s&lat=%2$f&lon=%3$f&lang=%4$s&units=imperial";
-    private final static String uriFormatWeather = "https://api.openweathermap.org/data/2.5/weather?appid=%1$s&lat=%2$f&lon=%3$f&lang=%4$s&units=imperial";
+    private final static String API_INSTANCE = "https://api.openweathermap.org";
+    private final static String uriFormatOneCall = "/data/%5$s/onecall?appid=%1$s&lat=%2$f&lon=%3$f&lang=%4$s&units=imperial";
+    private final static String uriFormatForecast = "/data/2.5/forecast?appid=%1$s&lat=%2$f&lon=%3$f&lang=%4$s&units=imperial";
+    private final static String uriFormatWeather = "/data/2.5/weather?appid=%1$s&lat=%2$f&lon=%3$f&lang=%4$s&units=imperial";
 
     private final static String USER_AGENT = "QuickWeather - https://play.google.com/store/apps/details?id=com.ominous.quickweather";
 
@@ -82,24 +85,25 @@ public class OpenWeatherMap {
         return lang.isEmpty() ? "en" : lang;
     }
 
-    public OwmApiVersion determineApiVersion(String apiKey) throws OpenWeatherMapException {
+    public OwmApiVersion determineApiVersion(Context context, String apiKey) throws OpenWeatherMapException {
         final HashMap<OwmApiVersion, Boolean> results = new HashMap<>();
 
         try {
             ParallelThreadManager.execute(
                     () -> {
                         try {
-                            new HttpRequest(
-                                    String.format(Locale.US, uriFormatOneCall, apiKey,
+                            HttpClient.getInstance(context).fetch(new Request.Builder()
+                                    .url(API_INSTANCE + String.format(Locale.US, uriFormatOneCall, apiKey,
                                             33.749,
                                             -84.388,
                                             getLang(Locale.getDefault()),
                                             "2.5"))
-                                    .addHeader("User-Agent", USER_AGENT)
-                                    .fetch();
+                                    .header("User-Agent", USER_AGENT)
+                                    .cacheControl(CacheControl.FORCE_NETWORK)
+                                    .build());
 
                             results.put(OwmApiVersion.ONECALL_2_5, true);
-                        } catch (HttpException e) {
+                        } catch (HttpStatusException e) {
                             results.put(OwmApiVersion.ONECALL_2_5, false);
                         } catch (IOException e) {
                             results.put(OwmApiVersion.ONECALL_2_5, null);
@@ -107,17 +111,18 @@ public class OpenWeatherMap {
                     },
                     () -> {
                         try {
-                            new HttpRequest(
-                                    String.format(Locale.US, uriFormatOneCall, apiKey,
+                            HttpClient.getInstance(context).fetch(new Request.Builder()
+                                    .url(API_INSTANCE + String.format(Locale.US, uriFormatOneCall, apiKey,
                                             33.749,
                                             -84.388,
                                             getLang(Locale.getDefault()),
                                             "3.0"))
-                                    .addHeader("User-Agent", USER_AGENT)
-                                    .fetch();
+                                    .header("User-Agent", USER_AGENT)
+                                    .cacheControl(CacheControl.FORCE_NETWORK)
+                                    .build());
 
                             results.put(OwmApiVersion.ONECALL_3_0, true);
-                        } catch (HttpException e) {
+                        } catch (HttpStatusException e) {
                             results.put(OwmApiVersion.ONECALL_3_0, false);
                         } catch (IOException e) {
                             results.put(OwmApiVersion.ONECALL_3_0, null);
@@ -125,17 +130,18 @@ public class OpenWeatherMap {
                     },
                     () -> {
                         try {
-                            new HttpRequest(
-                                    String.format(Locale.US, uriFormatWeather, apiKey,
+                            HttpClient.getInstance(context).fetch(new Request.Builder()
+                                    .url(API_INSTANCE + String.format(Locale.US, uriFormatWeather, apiKey,
                                             33.749,
                                             -84.388,
                                             getLang(Locale.getDefault())
                                     ))
-                                    .addHeader("User-Agent", USER_AGENT)
-                                    .fetch();
+                                    .header("User-Agent", USER_AGENT)
+                                    .cacheControl(CacheControl.FORCE_NETWORK)
+                                    .build());
 
                             results.put(OwmApiVersion.WEATHER_2_5, true);
-                        } catch (HttpException e) {
+                        } catch (HttpStatusException e) {
                             results.put(OwmApiVersion.WEATHER_2_5, false);
                         } catch (IOException e) {
                             results.put(OwmApiVersion.WEATHER_2_5, null);
@@ -179,10 +185,22 @@ public class OpenWeatherMap {
             double latitude,
             double longitude,
             String apiKey)
-            throws IOException, JSONException, InstantiationException, IllegalAccessException, HttpException {
+            throws IOException, JSONException, InstantiationException, IllegalAccessException {
+        return getCurrentWeather(context, apiVersion, latitude, longitude, apiKey, API_INSTANCE);
+    }
+
+    //apiInstance replaces https://api.openweathermap.org, e.g. with a local server in the benchmarks
+    public CurrentWeather getCurrentWeather(
+            Context context,
+            @NonNull OwmApiVersion apiVersion,
+            double latitude,
+            double longitude,
+            String apiKey,
+            String apiInstance)
+            throws IOException, JSONException, InstantiationException, IllegalAccessException {
         if (apiVersion == OwmApiVersion.ONECALL_2_5 ||
                 apiVersion == OwmApiVersion.ONECALL_3_0) {
-            return getCurrentWeatherFromOneCall(context, apiVersion, latitude, longitude, apiKey);
+            return getCurrentWeatherFromOneCall(context, apiVersion, latitude, longitude, apiKey, apiInstance);
         }
         throw new IllegalArgumentException("WeatherProvider must be ONECALL_2_5 or ONECALL_3_0");
     }
@@ -192,17 +210,18 @@ public class OpenWeatherMap {
             @NonNull OwmApiVersion apiVersion,
             double latitude,
             double longitude,
-            String apiKey)
-            throws IOException, JSONException, InstantiationException, IllegalAccessException, HttpException {
+            String apiKey,
+            String apiInstance)
+            throws IOException, JSONException, InstantiationException, IllegalAccessException {
         OpenWeatherOneCall openWeatherOneCall = JsonUtils.deserialize(OpenWeatherOneCall.class, new JSONObject(
-                new HttpRequest(
-                        String.format(Locale.US, uriFormatOneCall, apiKey,
+                HttpClient.getInstance(context).fetch(new Request.Builder()
+                        .url(apiInstance + String.format(Locale.US, uriFormatOneCall, apiKey,
                                 latitude,
                                 longitude,
                                 getLang(Locale.getDefault()),
                                 apiVersion == OwmApiVersion.ONECALL_2_5 ? "2.5" : "3.0"))
-                        .addHeader("User-Agent", USER_AGENT)
-                        .fetch()));
+                        .header("User-Agent", USER_AGENT)
+                        .build())));
 
         WeatherUtils weatherUtils = WeatherUtils.getInstance(context);
         CurrentWeather currentWeather = new CurrentWeather();
@@ -385,15 +404,25 @@ public class OpenWeatherMap {
             double latitude,
             double longitude,
             String apiKey)
-            throws IOException, JSONException, InstantiationException, IllegalAccessException, HttpException {
+            throws IOException, JSONException, InstantiationException, IllegalAccessException {
+        return getForecastWeather(context, latitude, longitude, apiKey, API_INSTANCE);
+    }
+
+    public CurrentWeather.DataPoint[] getForecastWeather(
+            Context context,
+            double latitude,
+            double longitude,
+            String apiKey,
+            String apiInstance)
+            throws IOException, JSONException, InstantiationException, IllegalAccessException {
         OpenWeatherForecast openWeatherForecast = JsonUtils.deserialize(OpenWeatherForecast.class, new JSONObject(
-                new HttpRequest(
-                        String.format(Locale.US, uriFormatForecast, apiKey,
+                HttpClient.getInstance(context).fetch(new Request.Builder()
+                        .url(apiInstance + String.format(Locale.US, uriFormatForecast, apiKey,
                                 latitude,
                                 longitude,
                                 getLang(Locale.getDefault())))
-                        .addHeader("User-Agent", USER_AGENT)
-                        .fetch()));
+                        .header("User-Agent", USER_AGENT)
+                        .build())));
 
         WeatherUtils weatherUtils = WeatherUtils.getInstance(context);
 
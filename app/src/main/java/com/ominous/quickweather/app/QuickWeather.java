@@ -25,13 +25,52 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.work.Configuration;
 
+import com.ominous.quickweather.BuildConfig;
+import com.ominous.quickweather.api.HttpClient;
+import com.ominous.quickweather.api.RadarTileCache;
+import com.ominous.quickweather.data.WeatherDatabase;
+import com.ominous.quickweather.pref.WeatherPreferences;
 import com.ominous.quickweather.util.ColorHelper;
+import com.ominous.quickweather.util.MapStyleCache;
 
 public class QuickWeather extends Application implements Configuration.Provider {
+    public final static String TASK_PREFERENCES = "preferences";
+    public final static String TASK_DATABASE = "database";
+    public final static String TASK_CARDS = "cards";
+    public final static String TASK_MIGRATIONS = "migrations";
+    public final static String TASK_RADAR_MIGRATION = "radarmigration";
+    public final static String TASK_NETWORK = "network";
+
     @Override
     public void onCreate() {
         super.onCreate();
 
+        //Opening the database, adding new default cards and migrating old settings no longer
+        //happen on the main thread the first time they are needed. Locations are migrated regardless of
+        //the cards, but disabling the radar updates the RADAR card, so it waits until the cards have been added
+        StartupPipeline.getInstance()
+                .addTask(TASK_PREFERENCES, () -> WeatherPreferences.getInstance(this))
+                .addTask(TASK_DATABASE, () -> WeatherDatabase.getInstance(this).getOpenHelper().getWritableDatabase())
+                .addTask(TASK_CARDS, () -> runOncePerVersion(TASK_CARDS,
+                        () -> WeatherDatabase.getInstance(this).initializeWeatherCards()),
+                        TASK_PREFERENCES, TASK_DATABASE)
+                .addTask(TASK_MIGRATIONS, () -> runOncePerVersion(TASK_MIGRATIONS,
+                        () -> WeatherPreferences.getInstance(this).migrate(this)),
+                        TASK_PREFERENCES, TASK_DATABASE)
+                .addTask(TASK_RADAR_MIGRATION, () -> {
+                            if (isCompleted(TASK_CARDS)) {
+                                runOncePerVersion(TASK_RADAR_MIGRATION,
+                                        () -> WeatherPreferences.getInstance(this).migrateHideRadarToDb(this));
+                            }
+                        },
+                        TASK_CARDS, TASK_MIGRATIONS)
+                .addTask(TASK_NETWORK, () -> {
+                    HttpClient.getInstance(this);
+                    RadarTileCache.getInstance(this);
+                    MapStyleCache.getInstance(this);
+                })
+                .start();
+
         //We need to instantiate a ColorHelper in the Application to properly set day/night and
         //cache the correct colors. This has to happen in the Application because a WebView is
         //created to set the day/night due to an Android bug
@@ -40,6 +79,20 @@ public class QuickWeather extends Application implements Configuration.Provider
                 .setNightMode(this);
     }
 
+    //New default cards and settings migrations only come with an update, so these run once per version.
+    //A task that throws is not marked as completed and runs again on the next launch
+    private void runOncePerVersion(String task, Runnable runnable) {
+        if (!isCompleted(task)) {
+            runnable.run();
+
+            WeatherPreferences.getInstance(this).setCompletedVersion(task, BuildConfig.VERSION_CODE);
+        }
+    }
+
+    private boolean isCompleted(String task) {
+        return WeatherPreferences.getInstance(this).getCompletedVersion(task) >= BuildConfig.VERSION_CODE;
+    }
+
     @NonNull
     @Override
     public Configuration getWorkManagerConfiguration() {
@@ -0,0 +1,155 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.app;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+//Runs startup tasks on background threads, each as soon as the tasks it depends on have finished,
+//and logs how long each one took
+public class StartupPipeline {
+    private final static String TAG = "StartupPipeline";
+    private final static int THREAD_COUNT = 3;
+
+    private static StartupPipeline instance;
+
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    private long startTime;
+    private int remainingTasks;
+
+    private StartupPipeline() {
+
+    }
+
+    public static synchronized StartupPipeline getInstance() {
+        if (instance == null) {
+            instance = new StartupPipeline();
+        }
+
+        return instance;
+    }
+
+    //Dependencies have to be added before the tasks that depend on them
+    public synchronized StartupPipeline addTask(@NonNull String name, @NonNull Runnable runnable, String... dependencies) {
+        Task task = new Task(name, runnable);
+
+        for (String dependency : dependencies) {
+            Task dependencyTask = tasks.get(dependency);
+
+            if (dependencyTask == null) {
+                throw new IllegalArgumentException("Unknown startup task: " + dependency);
+            }
+
+            dependencyTask.dependents.add(task);
+            task.pendingDependencies++;
+        }
+
+        tasks.put(name, task);
+
+        return this;
+    }
+
+    public synchronized void start() {
+        startTime = SystemClock.elapsedRealtime();
+        remainingTasks = tasks.size();
+
+        for (Task task : tasks.values()) {
+            if (task.pendingDependencies == 0) {
+                submit(task);
+            }
+        }
+    }
+
+    //Blocks until the task has finished. Unknown tasks return immediately
+    public void await(@NonNull String name) {
+        Task task;
+
+        synchronized (this) {
+            task = tasks.get(name);
+        }
+
+        if (task != null) {
+            try {
+                task.done.await();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void submit(Task task) {
+        executor.execute(() -> {
+            long taskStart = SystemClock.elapsedRealtime();
+
+            //A failed task does not hold back the tasks that depend on it
+            try {
+                task.runnable.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+
+            long taskEnd = SystemClock.elapsedRealtime();
+
+            Log.d(TAG, String.format(Locale.US, "%s took %dms, finished %dms after start",
+                    task.name, taskEnd - taskStart, taskEnd - startTime));
+
+            task.done.countDown();
+            onTaskFinished(task);
+        });
+    }
+
+    private synchronized void onTaskFinished(Task task) {
+        for (Task dependent : task.dependents) {
+            if (--dependent.pendingDependencies == 0) {
+                submit(dependent);
+            }
+        }
+
+        if (--remainingTasks == 0) {
+            Log.d(TAG, String.format(Locale.US, "Startup finished in %dms", SystemClock.elapsedRealtime() - startTime));
+
+            executor.shutdown();
+        }
+    }
+
+    private static class Task {
+        final String name;
+        final Runnable runnable;
+        final ArrayList<Task> dependents = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch(1);
+        int pendingDependencies = 0;
+
+        Task(String name, Runnable runnable) {
+            this.name = name;
+            this.runnable = runnable;
+        }
+    }
+}
@@ -45,9 +45,11 @@ import com.ominous.quickweather.data.WeatherModel;
 import com.ominous.quickweather.data.CurrentWeather;
 import com.ominous.quickweather.pref.TemperatureUnit;
 import com.ominous.quickweather.pref.WeatherPreferences;
+import com.ominous.quickweather.util.BitmapPool;
 import com.ominous.quickweather.util.ColorHelper;
 import com.ominous.quickweather.util.GraphHelper;
 import com.ominous.quickweather.util.WeatherUtils;
+import com.ominous.quickweather.view.LiveGraphView;
 import com.ominous.tylerutils.async.Promise;
 import com.ominous.tylerutils.util.ColorUtils;
 import com.ominous.tylerutils.util.LocaleUtils;
@@ -57,16 +59,12 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.Locale;
-import java.util.TreeSet;
 
 public class GraphCardView extends BaseCardView {
     private final static int ONE_HOUR = 60 * 60;
-    private final static Comparator<GraphHelper.IGraphPoint> pointYComparator = (o1, o2) -> Float.compare(o1.getY(), o2.getY());
-    private final static Comparator<GraphHelper.IGraphPoint> pointXComparator = (o1, o2) -> Float.compare(o1.getX(), o2.getX());
+    private final static int MIN_VISIBLE_SPAN = 6 * ONE_HOUR;
     final int LEFT_PADDING;
     final int RIGHT_PADDING;
     final int TOP_PADDING;
@@ -75,9 +73,12 @@ public class GraphCardView extends BaseCardView {
     final Drawable thermDrawable;
     private final ImageView graphImageView;
     private final HorizontalScrollView scrollView;
+    private final LiveGraphView liveGraphView;
     private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
     private WeatherModel weatherModel;
     private boolean shouldGenerateGraph = false;
+    private Bitmap graphBitmap;
+    private volatile int renderGeneration = 0; //incremented to cancel stale renders
 
     public GraphCardView(Context context) {
         super(context);
@@ -86,6 +87,7 @@ public class GraphCardView extends BaseCardView {
 
         graphImageView = findViewById(R.id.graph_image_view);
         scrollView = findViewById(R.id.scrollview);
+        liveGraphView = findViewById(R.id.live_graph_view);
 
         Resources resources = context.getResources();
 
@@ -97,6 +99,9 @@ public class GraphCardView extends BaseCardView {
 
         thermDrawable = ContextCompat.getDrawable(context, R.drawable.thermometer_25);
 
+        int pointSize = resources.getDimensionPixelSize(R.dimen.graph_point_size);
+        liveGraphView.setGraphInsets(LEFT_PADDING + pointSize, RIGHT_PADDING + pointSize);
+
         setContentDescription(resources.getString(R.string.card_graph_desc));
 
         ViewUtils.setAccessibilityInfo(this, null, null);
@@ -105,7 +110,9 @@ public class GraphCardView extends BaseCardView {
     @SuppressLint("ClickableViewAccessibility")
     @Override
     public boolean onTouchEvent(MotionEvent event) {
-        scrollView.onTouchEvent(event);
+        if (scrollView.getVisibility() == View.VISIBLE) {
+            scrollView.onTouchEvent(event);
+        }
 
         return super.onTouchEvent(event);
     }
@@ -131,6 +138,14 @@ public class GraphCardView extends BaseCardView {
         return paint;
     }
 
+    private Paint getTextPaint() {
+        Paint paint = new Paint();
+
+        paint.setTextSize(TEXT_SIZE);
+
+        return paint;
+    }
+
     @Override
     protected void onDraw(@NonNull Canvas canvas) {
         super.onDraw(canvas);
@@ -146,7 +161,9 @@ public class GraphCardView extends BaseCardView {
     public void update(WeatherModel weatherModel, int position) {
         this.weatherModel = weatherModel;
 
-        graphImageView.setImageBitmap(null);
+        renderGeneration++;
+        setGraphBitmap(null);
+        liveGraphView.clear();
 
         shouldGenerateGraph = true;
     }
@@ -162,478 +179,436 @@ public class GraphCardView extends BaseCardView {
     }
 
     private void generateGraph(WeatherModel weatherModel) {
+        final int generation = ++renderGeneration;
+        final boolean isLive = liveGraphView.isHardwareAccelerated();
+
         Promise
                 .create(weatherModel)
                 .then((m) -> {
+                    if (generation != renderGeneration) {
+                        return;
+                    }
+
                     WeatherUtils weatherUtils = WeatherUtils.getInstance(getContext());
                     WeatherPreferences weatherPreferences = WeatherPreferences.getInstance(getContext());
                     ColorHelper colorHelper = ColorHelper.getInstance(getContext());
                     boolean isDarkModeActive = ColorUtils.isNightModeActive(getContext());
 
-                    Bitmap graphBitmap = m.date == null ?
-                            generateCurrentGraph(colorHelper, weatherUtils, weatherPreferences.getTemperatureUnit(), isDarkModeActive, m.currentWeather) :
-                            generateForecastGraph(colorHelper, weatherUtils, weatherPreferences.getTemperatureUnit(), isDarkModeActive, m);//background
-
-                    mainThreadHandler.post(() ->
-                            graphImageView.setImageBitmap(graphBitmap));//foreground
+                    GraphData graphData = m.date == null ?
+                            getCurrentGraphData(colorHelper, weatherUtils, weatherPreferences.getTemperatureUnit(), isDarkModeActive, m.currentWeather) :
+                            getForecastGraphData(colorHelper, weatherUtils, weatherPreferences.getTemperatureUnit(), isDarkModeActive, m);//background
+
+                    //A newer render has started, so skip drawing this one
+                    if (generation != renderGeneration) {
+                        return;
+                    }
+
+                    if (thermDrawable != null) {
+                        thermDrawable.setColorFilter(ContextCompat.getColor(getContext(), R.color.text_primary_emphasis), PorterDuff.Mode.SRC_IN);
+                    }
+
+                    if (isLive) {
+                        mainThreadHandler.post(() -> {
+                            if (generation == renderGeneration) {
+                                showLiveGraph(graphData);//foreground
+                            }
+                        });
+                    } else {
+                        Bitmap graphBitmap = drawGraphBitmap(graphData);
+
+                        mainThreadHandler.post(() -> {
+                            if (generation == renderGeneration) {
+                                setGraphBitmap(graphBitmap);//foreground
+                            } else {
+                                BitmapPool.getInstance().release(graphBitmap);
+                            }
+                        });
+                    }
                 });
     }
 
-    private Bitmap generateCurrentGraph(ColorHelper colorHelper,
-                                        WeatherUtils weatherUtils,
-                                        TemperatureUnit temperatureUnit,
-                                        boolean isDarkModeActive,
-                                        CurrentWeather response) {
-        ArrayList<TemperatureGraphPoint> temperaturePoints = new ArrayList<>(48);
-        ArrayList<PrecipitationGraphPoint> precipitationPoints = new ArrayList<>(48);
+    //The graph is drawn by the view itself, so only the visible window is drawn and no bitmap is kept
+    private void showLiveGraph(GraphData graphData) {
+        scrollView.setVisibility(View.GONE);
+        liveGraphView.setVisibility(View.VISIBLE);
 
-        //need to keep the longs short or the cast to float and back will break
-        long start = response.hourly[0].dt;
+        liveGraphView.setRenderer(new LiveGraphRenderer(graphData),
+                graphData.xMax,
+                (float) graphData.xMax / graphData.widthMultiplier,
+                MIN_VISIBLE_SPAN);
+    }
+
+    //The previous bitmap is no longer displayed once it is replaced, so it goes back to the pool
+    private void setGraphBitmap(Bitmap bitmap) {
+        Bitmap previousBitmap = graphBitmap;
 
-        for (int i = 0, l = 48; i < l; i++) {
-            temperaturePoints.add(new TemperatureGraphPoint(
-                    colorHelper,
-                    weatherUtils,
-                    temperatureUnit,
-                    isDarkModeActive,
-                    response.hourly[i].dt - start,
-                    (float) response.hourly[i].temp));
-            precipitationPoints.add(new PrecipitationGraphPoint(
-                    colorHelper,
-                    response.hourly[i].dt - start,
-                    Math.min((float) response.hourly[i].precipitationIntensity, 2f),
-                    response.hourly[i].precipitationType
-            ));
+        graphBitmap = bitmap;
+        graphImageView.setImageBitmap(bitmap);
+
+        if (bitmap != null) {
+            liveGraphView.setVisibility(View.GONE);
+            scrollView.setVisibility(View.VISIBLE);
         }
 
-        final ArrayList<XGraphLabel> xGraphLabels = new ArrayList<>();
+        if (previousBitmap != null && previousBitmap != bitmap) {
+            BitmapPool.getInstance().release(previousBitmap);
+        }
+    }
 
-        for (TemperatureGraphPoint point : temperaturePoints) {
-            xGraphLabels.add(new XGraphLabel(
-                    (int) point.x,
-                    LocaleUtils.formatHour(
-                            getContext(),
-                            Locale.getDefault(),
-                            new Date((((int) point.x) + start) * 1000),
-                            weatherModel.currentWeather.timezone)));
+    private GraphData getCurrentGraphData(ColorHelper colorHelper,
+                                          WeatherUtils weatherUtils,
+                                          TemperatureUnit temperatureUnit,
+                                          boolean isDarkModeActive,
+                                          CurrentWeather response) {
+        final int count = 48;
+        final float[] x = new float[count];
+        final float[] temperature = new float[count];
+        final float[] precipitation = new float[count];
+        final PrecipType[] precipitationType = new PrecipType[count];
+
+        //need to keep the longs short or the cast to float and back will break
+        long start = response.hourly[0].dt;
+
+        for (int i = 0; i < count; i++) {
+            x[i] = response.hourly[i].dt - start;
+            temperature[i] = (float) response.hourly[i].temp;
+            precipitation[i] = Math.min((float) response.hourly[i].precipitationIntensity, 2f);
+            precipitationType[i] = response.hourly[i].precipitationType;
         }
 
-        final int width = (this.getMeasuredWidth() - 2 * getResources().getDimensionPixelSize(R.dimen.margin_half)) * 2;
-        final int height = this.getMeasuredHeight() - 2 * getResources().getDimensionPixelSize(R.dimen.margin_half);
+        final String[] xGraphLabels = getXGraphLabels(x, count, start);
 
-        return doGenerateGraph(width, height, colorHelper, isDarkModeActive, temperatureUnit, temperaturePoints, precipitationPoints, xGraphLabels);
+        //Two widths, so half of the 48 hours is visible at once
+        return getGraphData(colorHelper, weatherUtils, isDarkModeActive, temperatureUnit, x, temperature, precipitation, precipitationType, count, xGraphLabels, 2);
     }
 
-    private Bitmap generateForecastGraph(ColorHelper colorHelper,
-                                         WeatherUtils weatherUtils,
-                                         TemperatureUnit temperatureUnit,
-                                         boolean isDarkModeActive,
-                                         WeatherModel weatherModel) {
-        final TreeSet<TemperatureGraphPoint> temperaturePointsSet = new TreeSet<>(pointXComparator);
-        final TreeSet<PrecipitationGraphPoint> precipitationPointsSet = new TreeSet<>(pointXComparator);
+    private GraphData getForecastGraphData(ColorHelper colorHelper,
+                                           WeatherUtils weatherUtils,
+                                           TemperatureUnit temperatureUnit,
+                                           boolean isDarkModeActive,
+                                           WeatherModel weatherModel) {
+        final CurrentWeather.DataPoint[] hourly = weatherModel.currentWeather.hourly;
+        final CurrentWeather.DataPoint[] trihourly = weatherModel.currentWeather.trihourly == null ?
+                new CurrentWeather.DataPoint[0] : weatherModel.currentWeather.trihourly;
+
+        final int capacity = hourly.length + trihourly.length;
+        final float[] x = new float[capacity];
+        final float[] temperature = new float[capacity];
+        final float[] precipitation = new float[capacity];
+        final PrecipType[] precipitationType = new PrecipType[capacity];
 
         //need to keep the longs short or the cast to float and back will break
         long start = LocaleUtils.getStartOfDay(weatherModel.date, weatherModel.currentWeather.timezone) / 1000;
         long end = start + 23 * ONE_HOUR;
 
-        for (int i = 0, l = weatherModel.currentWeather.hourly.length; i < l; i++) {
-            if (weatherModel.currentWeather.hourly[i].dt >= start &&
-                    weatherModel.currentWeather.hourly[i].dt <= end) {
-                temperaturePointsSet.add(new TemperatureGraphPoint(
-                        colorHelper,
-                        weatherUtils,
-                        temperatureUnit,
-                        isDarkModeActive,
-                        weatherModel.currentWeather.hourly[i].dt - start,
-                        (float) weatherModel.currentWeather.hourly[i].temp));
-                precipitationPointsSet.add(new PrecipitationGraphPoint(
-                        colorHelper,
-                        weatherModel.currentWeather.hourly[i].dt - start,
-                        Math.min((float) weatherModel.currentWeather.hourly[i].precipitationIntensity, 2f),
-                        weatherModel.currentWeather.hourly[i].precipitationType
-                ));
+        //Both arrays are sorted by time, so they are merged in a single pass. Hourly data takes precedence
+        int count = 0;
+
+        for (int h = 0, t = 0, hl = hourly.length, tl = trihourly.length; ; ) {
+            while (h < hl && (hourly[h].dt < start || hourly[h].dt > end)) {
+                h++;
             }
-        }
 
-        for (int i = 0, l = weatherModel.currentWeather.trihourly.length; i < l; i++) {
-            if (weatherModel.currentWeather.trihourly[i].dt >= start &&
-                    weatherModel.currentWeather.trihourly[i].dt <= end) {
-                temperaturePointsSet.add(new TemperatureGraphPoint(
-                        colorHelper,
-                        weatherUtils,
-                        temperatureUnit,
-                        isDarkModeActive,
-                        weatherModel.currentWeather.trihourly[i].dt - start,
-                        (float) weatherModel.currentWeather.trihourly[i].temp));
-                precipitationPointsSet.add(new PrecipitationGraphPoint(
-                        colorHelper,
-                        weatherModel.currentWeather.trihourly[i].dt - start,
-                        Math.min((float) weatherModel.currentWeather.trihourly[i].precipitationIntensity / 3, 2f),
-                        weatherModel.currentWeather.trihourly[i].precipitationType
-                ));
+            while (t < tl && (trihourly[t].dt < start || trihourly[t].dt > end)) {
+                t++;
             }
-        }
 
-        final ArrayList<TemperatureGraphPoint> temperaturePoints = new ArrayList<>(temperaturePointsSet);
-        final ArrayList<PrecipitationGraphPoint> precipitationPoints = new ArrayList<>(precipitationPointsSet);
+            if (h == hl && t == tl) {
+                break;
+            }
 
-        final ArrayList<XGraphLabel> xGraphLabels = new ArrayList<>();
+            boolean isHourly = t == tl || (h < hl && hourly[h].dt <= trihourly[t].dt);
+            CurrentWeather.DataPoint dataPoint;
 
-        for (TemperatureGraphPoint point : temperaturePoints) {
-            xGraphLabels.add(
-                    new XGraphLabel((int) point.x,
-                            LocaleUtils.formatHour(
-                                    getContext(),
-                                    Locale.getDefault(),
-                                    new Date((((int) point.x) + start) * 1000),
-                                    weatherModel.currentWeather.timezone)));
-        }
+            if (isHourly) {
+                dataPoint = hourly[h++];
 
-        final int width = this.getMeasuredWidth() - 2 * getResources().getDimensionPixelSize(R.dimen.margin_half);
-        final int height = this.getMeasuredHeight() - 2 * getResources().getDimensionPixelSize(R.dimen.margin_half);
+                if (t < tl && trihourly[t].dt == dataPoint.dt) {
+                    t++;
+                }
+            } else {
+                dataPoint = trihourly[t++];
+            }
 
-        return doGenerateGraph(width, height, colorHelper, isDarkModeActive, temperatureUnit, temperaturePoints, precipitationPoints, xGraphLabels);
-    }
+            if (count > 0 && x[count - 1] == dataPoint.dt - start) {
+                continue;
+            }
 
-    private Bitmap doGenerateGraph(int width,
-                                   int height,
-                                   ColorHelper colorHelper,
-                                   boolean isDarkModeActive,
-                                   TemperatureUnit temperatureUnit,
-                                   ArrayList<TemperatureGraphPoint> temperaturePoints,
-                                   ArrayList<PrecipitationGraphPoint> precipitationPoints,
-                                   ArrayList<XGraphLabel> xGraphLabels) {
-        WeatherPreferences weatherPreferences = WeatherPreferences.getInstance(getContext());
-        WeatherUtils weatherUtils = WeatherUtils.getInstance(getContext());
-
-        float minTemp = Collections.min(temperaturePoints, pointYComparator).getTemperature();
-        float maxTemp = Collections.max(temperaturePoints, pointYComparator).getTemperature();
-        int yMin = (int) weatherUtils.getTemperature(weatherPreferences.getTemperatureUnit(), minTemp);
-        int yMax = (int) weatherUtils.getTemperature(weatherPreferences.getTemperatureUnit(), maxTemp) + 1;
-        int xMax = (Math.max(temperaturePoints.size(), 24) - 1) * ONE_HOUR;
+            x[count] = dataPoint.dt - start;
+            temperature[count] = (float) dataPoint.temp;
+            precipitation[count] = Math.min((float) dataPoint.precipitationIntensity / (isHourly ? 1 : 3), 2f);
+            precipitationType[count] = dataPoint.precipitationType;
+            count++;
+        }
 
-        GraphHelper.GraphBounds precipitationGraphBounds = new GraphHelper.GraphBounds(
-                0,
-                xMax,
-                0,
-                2);
+        final String[] xGraphLabels = getXGraphLabels(x, count, start);
 
-        GraphHelper.GraphBounds temperatureGraphBounds = new GraphHelper.GraphBounds(
-                0,
-                xMax,
-                yMin,
-                yMax
-        );
+        return getGraphData(colorHelper, weatherUtils, isDarkModeActive, temperatureUnit, x, temperature, precipitation, precipitationType, count, xGraphLabels, 1);
+    }
 
-        int segments = temperaturePoints.size() < 24 ? 15 : 5;
+    private String[] getXGraphLabels(float[] x, int count, long start) {
+        final String[] xGraphLabels = new String[count];
 
-        if (thermDrawable != null) {
-            thermDrawable.setColorFilter(ContextCompat.getColor(getContext(), R.color.text_primary_emphasis), PorterDuff.Mode.SRC_IN);
+        for (int i = 0; i < count; i++) {
+            xGraphLabels[i] = LocaleUtils.formatHour(
+                    getContext(),
+                    Locale.getDefault(),
+                    new Date((((int) x[i]) + start) * 1000),
+                    weatherModel.currentWeather.timezone);
         }
 
-        GraphHelper graphHelper = new GraphHelper(getContext().getResources(), width, height);
-        RectF graphRegion = new RectF(LEFT_PADDING, TOP_PADDING, width - RIGHT_PADDING, height - BOTTOM_PADDING - TOP_PADDING);
-        RectF yAxisRegion = new RectF(0f, 0f, LEFT_PADDING, height);
-        RectF xAxisRegion = new RectF(LEFT_PADDING, height - BOTTOM_PADDING, width - RIGHT_PADDING, height);
-        RectF iconRegion = new RectF(0f, height / 2f - TEXT_SIZE / 2f - BOTTOM_PADDING / 2f, TEXT_SIZE, height / 2f + TEXT_SIZE / 2f - BOTTOM_PADDING / 2f);
+        return xGraphLabels;
+    }
 
-        ArrayList<PrecipitationCurveGraphPoint> precipitationCurvePoints = getPrecipitationCurve(colorHelper, precipitationPoints, segments);
-        ArrayList<TemperatureCurveGraphPoint> temperatureCurvePoints = getTemperatureCurve(colorHelper, weatherUtils, temperatureUnit, isDarkModeActive, temperaturePoints, segments);
-        ArrayList<YGraphLabel> yGraphLabels = new ArrayList<>(Arrays.asList(new YGraphLabel(yMin, colorHelper.getColorFromTemperature(minTemp, true, isDarkModeActive)),
+    private GraphData getGraphData(ColorHelper colorHelper,
+                                   WeatherUtils weatherUtils,
+                                   boolean isDarkModeActive,
+                                   TemperatureUnit temperatureUnit,
+                                   float[] x,
+                                   float[] temperature,
+                                   float[] precipitation,
+                                   PrecipType[] precipitationType,
+                                   int count,
+                                   String[] xGraphLabels,
+                                   int widthMultiplier) {
+        float minTemp = temperature[0];
+        float maxTemp = temperature[0];
+
+        for (int i = 1; i < count; i++) {
+            minTemp = Math.min(minTemp, temperature[i]);
+            maxTemp = Math.max(maxTemp, temperature[i]);
+        }
+
+        int yMin = (int) weatherUtils.getTemperature(temperatureUnit, minTemp);
+        int yMax = (int) weatherUtils.getTemperature(temperatureUnit, maxTemp) + 1;
+        int xMax = (Math.max(count, 24) - 1) * ONE_HOUR;
+
+        int segments = count < 24 ? 15 : 5;
+
+        GraphHelper.GraphSeries temperaturePoints = new GraphHelper.GraphSeries(count);
+        GraphHelper.GraphSeries precipitationPoints = new GraphHelper.GraphSeries(count);
+
+        for (int i = 0; i < count; i++) {
+            temperaturePoints.x[i] = x[i];
+            temperaturePoints.y[i] = BigDecimal.valueOf(weatherUtils.getTemperature(temperatureUnit, temperature[i])).setScale(1, RoundingMode.HALF_UP).floatValue();
+            temperaturePoints.color[i] = colorHelper.getColorFromTemperature(temperature[i], true, isDarkModeActive);
+
+            precipitationPoints.x[i] = x[i];
+            precipitationPoints.y[i] = precipitation[i];
+            precipitationPoints.color[i] = colorHelper.getPrecipColor(precipitationType[i]);
+        }
+
+        temperaturePoints.size = count;
+        precipitationPoints.size = count;
+
+        int curveCapacity = Math.max(count - 1, 0) * segments;
+        float[] curveValues = new float[curveCapacity];
+
+        //The spline runs over the raw temperature, which is then converted and coloured
+        GraphHelper.GraphSeries temperatureCurvePoints = new GraphHelper.GraphSeries(curveCapacity);
+        temperatureCurvePoints.size = GraphHelper.getCurve(x, temperature, count, segments, temperatureCurvePoints.x, curveValues);
+
+        for (int i = 0; i < temperatureCurvePoints.size; i++) {
+            temperatureCurvePoints.y[i] = (float) weatherUtils.getTemperature(temperatureUnit, curveValues[i]);
+            temperatureCurvePoints.color[i] = colorHelper.getColorFromTemperature(curveValues[i], true, isDarkModeActive);
+        }
+
+        //Between two precipitation types, the colour blends from one to the other
+        GraphHelper.GraphSeries precipitationCurvePoints = new GraphHelper.GraphSeries(curveCapacity);
+        precipitationCurvePoints.size = GraphHelper.getCurve(x, precipitation, count, segments, precipitationCurvePoints.x, precipitationCurvePoints.y);
+
+        for (int i = 0; i < precipitationCurvePoints.size; i++) {
+            int prev = i / segments;
+            int next = prev + 1;
+
+            precipitationCurvePoints.y[i] = Math.min(Math.max(precipitationCurvePoints.y[i], 0f), 2f);
+            precipitationCurvePoints.color[i] = precipitationType[prev] == precipitationType[next] ?
+                    precipitationPoints.color[prev] :
+                    ColorUtils.blendColors(precipitationPoints.color[next],
+                            precipitationPoints.color[prev],
+                            (x[next] - precipitationCurvePoints.x[i]) / (x[next] - x[prev]) * 100.);
+        }
+
+        GraphData graphData = new GraphData();
+
+        graphData.x = x;
+        graphData.count = count;
+        graphData.xMax = xMax;
+        graphData.yMin = yMin;
+        graphData.yMax = yMax;
+        graphData.widthMultiplier = widthMultiplier;
+        graphData.xGraphLabels = xGraphLabels;
+        graphData.temperatureLabels = new String[count];
+        graphData.temperaturePoints = temperaturePoints;
+        graphData.temperatureCurvePoints = temperatureCurvePoints;
+        graphData.precipitationPoints = precipitationPoints;
+        graphData.precipitationCurvePoints = precipitationCurvePoints;
+        graphData.yGraphLabels = new ArrayList<>(Arrays.asList(new YGraphLabel(yMin, colorHelper.getColorFromTemperature(minTemp, true, isDarkModeActive)),
                 new YGraphLabel(yMax, colorHelper.getColorFromTemperature(maxTemp, true, isDarkModeActive))));
 
-        Paint fillPaint = getFillPaint();
-        Paint strokePaint = getStrokePaint();
-
-        graphHelper.plotAreaOnCanvas(graphRegion, fillPaint, precipitationGraphBounds, precipitationCurvePoints);
-
-        graphHelper.plotLinesOnCanvas(graphRegion, strokePaint, precipitationGraphBounds, precipitationCurvePoints);
-
-        graphHelper.plotPointsOnCanvas(graphRegion, fillPaint, precipitationGraphBounds, precipitationPoints);
-
-        graphHelper.plotLinesOnCanvas(graphRegion, strokePaint, temperatureGraphBounds, temperatureCurvePoints);
+        for (int i = 0; i < count; i++) {
+            graphData.temperatureLabels[i] = weatherUtils.getTemperatureString(temperatureUnit, temperature[i], 0);
+        }
 
-        graphHelper.plotPointsOnCanvas(graphRegion, fillPaint, temperatureGraphBounds, temperaturePoints);
+        return graphData;
+    }
 
-        Paint textPaint = new Paint();
-        textPaint.setTextSize(TEXT_SIZE);
-        textPaint.setTextAlign(Paint.Align.LEFT);
-        graphHelper.drawYAxisOnCanvas(yAxisRegion, textPaint, yGraphLabels);
+    private Bitmap drawGraphBitmap(GraphData graphData) {
+        final int width = (this.getMeasuredWidth() - 2 * getResources().getDimensionPixelSize(R.dimen.margin_half)) * graphData.widthMultiplier;
+        final int height = this.getMeasuredHeight() - 2 * getResources().getDimensionPixelSize(R.dimen.margin_half);
 
-        textPaint.setColor(ContextCompat.getColor(getContext(), R.color.text_primary));
-        textPaint.setTextAlign(Paint.Align.CENTER);
-        graphHelper.drawXAxisOnCanvas(xAxisRegion, textPaint, temperatureGraphBounds, xGraphLabels);
+        GraphHelper graphHelper = new GraphHelper(getContext().getResources(), width, height);
+        Paint textPaint = getTextPaint();
 
-        if (thermDrawable != null) {
-            graphHelper.drawDrawableOnCanvas(iconRegion, thermDrawable);
-        }
+        drawGraph(graphHelper, graphData, width, height, 0, graphData.xMax, getFillPaint(), getStrokePaint(), textPaint);
+        drawYAxis(graphHelper, graphData, height, textPaint);
 
         return graphHelper.getBitmap();
     }
 
-    //Based on https://stackoverflow.com/a/15528789
-    private ArrayList<TemperatureCurveGraphPoint> getTemperatureCurve(
-            ColorHelper colorHelper,
-            WeatherUtils weatherUtils,
-            TemperatureUnit temperatureUnit,
-            boolean isDarkModeActive,
-            ArrayList<TemperatureGraphPoint> pts,
-            int segments) {
-        //noinspection UnnecessaryLocalVariable
-        final float segmentsF = segments;
-        final float tension = 0.5f;
-
-        final ArrayList<TemperatureGraphPoint> ptsCopy = new ArrayList<>(pts.size() + 2);
-        final ArrayList<TemperatureCurveGraphPoint> ptsCurve = new ArrayList<>(pts.size() * segments);
-
-        ptsCopy.add(pts.get(0));
-        ptsCopy.addAll(pts);
-        ptsCopy.add(pts.get(pts.size() - 1));
-
-        for (int i = 1, l = ptsCopy.size() - 2; i < l; i++) {
-            for (int t = 0; t < segments; t++) {
-
-                float st = t / segmentsF;
-                float st2 = st * st;
-                float st3 = st2 * st;
-                float c1 = 2 * st3 - 3 * st2 + 1;
-                float c2 = -2 * st3 + 3 * st2;
-                float c3 = st3 - 2 * st2 + st;
-                float c4 = st3 - st2;
-
-                ptsCurve.add(new TemperatureCurveGraphPoint(
-                        colorHelper,
-                        weatherUtils,
-                        temperatureUnit,
-                        isDarkModeActive,
-                        c1 * ptsCopy.get(i).getX() +
-                                c2 * ptsCopy.get(i + 1).getX() +
-                                c3 * (ptsCopy.get(i + 1).getX() - ptsCopy.get(i - 1).getX()) * tension +
-                                c4 * (ptsCopy.get(i + 2).getX() - ptsCopy.get(i).getX()) * tension,
-                        c1 * ptsCopy.get(i).getTemperature() +
-                                c2 * ptsCopy.get(i + 1).getTemperature() +
-                                c3 * (ptsCopy.get(i + 1).getTemperature() - ptsCopy.get(i - 1).getTemperature()) * tension +
-                                c4 * (ptsCopy.get(i + 2).getTemperature() - ptsCopy.get(i).getTemperature()) * tension
-                ));
-            }
-        }
-
-        return ptsCurve;
-    }
-
-    //Based on https://stackoverflow.com/a/15528789
-    private ArrayList<PrecipitationCurveGraphPoint> getPrecipitationCurve(ColorHelper colorHelper, ArrayList<PrecipitationGraphPoint> pts, int segments) {
-        //noinspection UnnecessaryLocalVariable
-        final float segmentsF = segments;
-        final float tension = 0.5f;
-
-        final ArrayList<PrecipitationGraphPoint> ptsCopy = new ArrayList<>(pts.size() + 2);
-        final ArrayList<PrecipitationCurveGraphPoint> ptsCurve = new ArrayList<>(pts.size() * segments);
-
-        ptsCopy.add(pts.get(0));
-        ptsCopy.addAll(pts);
-        ptsCopy.add(pts.get(pts.size() - 1));
-
-        for (int i = 1, l = ptsCopy.size() - 2; i < l; i++) {
-            for (int t = 0; t < segments; t++) {
-
-                float st = t / segmentsF;
-                float st2 = st * st;
-                float st3 = st2 * st;
-                float c1 = 2 * st3 - 3 * st2 + 1;
-                float c2 = -2 * st3 + 3 * st2;
-                float c3 = st3 - 2 * st2 + st;
-                float c4 = st3 - st2;
-
-                ptsCurve.add(new PrecipitationCurveGraphPoint(
-                        colorHelper,
-                        c1 * ptsCopy.get(i).getX() +
-                                c2 * ptsCopy.get(i + 1).getX() +
-                                c3 * (ptsCopy.get(i + 1).getX() - ptsCopy.get(i - 1).getX()) * tension +
-                                c4 * (ptsCopy.get(i + 2).getX() - ptsCopy.get(i).getX()) * tension,
-                        Math.min(Math.max(
-                                c1 * ptsCopy.get(i).getY() +
-                                        c2 * ptsCopy.get(i + 1).getY() +
-                                        c3 * (ptsCopy.get(i + 1).getY() - ptsCopy.get(i - 1).getY()) * tension +
-                                        c4 * (ptsCopy.get(i + 2).getY() - ptsCopy.get(i).getY()) * tension,
-                                0f), 2f),
-                        ptsCopy.get(i),
-                        ptsCopy.get(i + 1)));
-            }
-        }
+    //Draws the values between start and end across the graph region, along with the x axis
+    private void drawGraph(GraphHelper graphHelper,
+                           GraphData graphData,
+                           int width,
+                           int height,
+                           int start,
+                           int end,
+                           Paint fillPaint,
+                           Paint strokePaint,
+                           Paint textPaint) {
+        RectF graphRegion = getGraphRegion(width, height);
+        RectF xAxisRegion = new RectF(LEFT_PADDING, height - BOTTOM_PADDING, width - RIGHT_PADDING, height);
 
-        return ptsCurve;
-    }
+        GraphHelper.GraphBounds precipitationGraphBounds = new GraphHelper.GraphBounds(
+                start,
+                end,
+                0,
+                2);
 
-    private static class TemperatureGraphPoint implements GraphHelper.IGraphPoint {
-        private final float x;
-        private final float temperature;
-        private final float y;
-        private final int color;
+        GraphHelper.GraphBounds temperatureGraphBounds = getTemperatureGraphBounds(graphData, start, end);
 
-        public TemperatureGraphPoint(ColorHelper colorHelper,
-                                     WeatherUtils weatherUtils,
-                                     TemperatureUnit temperatureUnit,
-                                     boolean isDarkModeActive,
-                                     float x,
-                                     float temperature) {
-            this.x = x;
-            this.temperature = temperature;
-            this.y = BigDecimal.valueOf(weatherUtils.getTemperature(temperatureUnit, temperature)).setScale(1, RoundingMode.HALF_UP).floatValue();
-            this.color = colorHelper.getColorFromTemperature(temperature, true, isDarkModeActive);
-        }
+        graphHelper.plotAreaOnCanvas(graphRegion, fillPaint, precipitationGraphBounds, graphData.precipitationCurvePoints);
 
-        @Override
-        public float getX() {
-            return x;
-        }
+        graphHelper.plotLinesOnCanvas(graphRegion, strokePaint, precipitationGraphBounds, graphData.precipitationCurvePoints);
 
-        @Override
-        public float getY() {
-            return y;
-        }
+        graphHelper.plotPointsOnCanvas(graphRegion, fillPaint, precipitationGraphBounds, graphData.precipitationPoints);
 
-        public float getTemperature() {
-            return temperature;
-        }
+        graphHelper.plotLinesOnCanvas(graphRegion, strokePaint, temperatureGraphBounds, graphData.temperatureCurvePoints);
 
-        @Override
-        public Paint getPaint(Paint paint) {
-            paint.setColor(color);
+        graphHelper.plotPointsOnCanvas(graphRegion, fillPaint, temperatureGraphBounds, graphData.temperaturePoints);
 
-            return paint;
-        }
+        textPaint.setColor(ContextCompat.getColor(getContext(), R.color.text_primary));
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        graphHelper.drawXAxisOnCanvas(xAxisRegion, textPaint, temperatureGraphBounds, graphData.x, graphData.xGraphLabels, graphData.count);
     }
 
-    private static class TemperatureCurveGraphPoint implements GraphHelper.IGraphPoint {
-        private final float x;
-        private final float y;
-        private final int color;
-
-        public TemperatureCurveGraphPoint(ColorHelper colorHelper,
-                                          WeatherUtils weatherUtils,
-                                          TemperatureUnit temperatureUnit,
-                                          boolean isDarkModeActive,
-                                          float x,
-                                          float temperature) {
-            this.x = x;
-            this.y = (float) weatherUtils.getTemperature(temperatureUnit, temperature);
-            this.color = colorHelper.getColorFromTemperature(temperature, true, isDarkModeActive);
-        }
+    private void drawYAxis(GraphHelper graphHelper, GraphData graphData, int height, Paint textPaint) {
+        RectF yAxisRegion = new RectF(0f, 0f, LEFT_PADDING, height);
+        RectF iconRegion = new RectF(0f, height / 2f - TEXT_SIZE / 2f - BOTTOM_PADDING / 2f, TEXT_SIZE, height / 2f + TEXT_SIZE / 2f - BOTTOM_PADDING / 2f);
 
-        @Override
-        public float getX() {
-            return x;
-        }
+        textPaint.setTextAlign(Paint.Align.LEFT);
+        graphHelper.drawYAxisOnCanvas(yAxisRegion, textPaint, graphData.yGraphLabels);
 
-        @Override
-        public float getY() {
-            return y;
+        if (thermDrawable != null) {
+            graphHelper.drawDrawableOnCanvas(iconRegion, thermDrawable);
         }
+    }
 
-        @Override
-        public Paint getPaint(Paint paint) {
-            paint.setColor(color);
+    private RectF getGraphRegion(int width, int height) {
+        return new RectF(LEFT_PADDING, TOP_PADDING, width - RIGHT_PADDING, height - BOTTOM_PADDING - TOP_PADDING);
+    }
 
-            return paint;
-        }
+    private static GraphHelper.GraphBounds getTemperatureGraphBounds(GraphData graphData, int start, int end) {
+        return new GraphHelper.GraphBounds(
+                start,
+                end,
+                graphData.yMin,
+                graphData.yMax
+        );
     }
 
-    private static class PrecipitationGraphPoint implements GraphHelper.IGraphPoint {
-        private final float x;
-        private final float y;
-        private final PrecipType type;
-        private final int color;
+    //Everything needed to draw the graph, prepared in the background so drawing is only canvas calls
+    private static class GraphData {
+        float[] x;
+        int count;
+        int xMax;
+        int yMin;
+        int yMax;
+        int widthMultiplier; //how many view widths the full graph spans
+        String[] xGraphLabels;
+        String[] temperatureLabels;
+        GraphHelper.GraphSeries temperaturePoints;
+        GraphHelper.GraphSeries temperatureCurvePoints;
+        GraphHelper.GraphSeries precipitationPoints;
+        GraphHelper.GraphSeries precipitationCurvePoints;
+        ArrayList<YGraphLabel> yGraphLabels;
+    }
 
-        public PrecipitationGraphPoint(ColorHelper colorHelper, float x, float y, PrecipType type) {
-            this.x = x;
-            this.y = y;
-            this.type = type;
-            this.color = colorHelper.getPrecipColor(type);
-        }
+    private class LiveGraphRenderer implements LiveGraphView.Renderer {
+        private final GraphData graphData;
+        private final GraphHelper graphHelper = new GraphHelper(getResources());
+        private final Paint fillPaint = getFillPaint();
+        private final Paint strokePaint = getStrokePaint();
+        private final Paint textPaint = getTextPaint();
+        private final Paint crosshairPaint = getStrokePaint();
 
-        @Override
-        public float getX() {
-            return x;
-        }
+        LiveGraphRenderer(GraphData graphData) {
+            this.graphData = graphData;
 
-        @Override
-        public float getY() {
-            return y;
+            crosshairPaint.setStrokeWidth(2);
         }
 
         @Override
-        public Paint getPaint(Paint paint) {
-            paint.setColor(color);
+        public void onDrawGraph(@NonNull Canvas canvas, int width, int height, float start, float end) {
+            graphHelper.setCanvas(canvas);
 
-            return paint;
-        }
+            //The values scroll beneath the y axis, which stays in place
+            canvas.save();
+            canvas.clipRect(LEFT_PADDING, 0, width, height);
+            drawGraph(graphHelper, graphData, width, height, (int) start, (int) end, fillPaint, strokePaint, textPaint);
+            canvas.restore();
 
-        public PrecipType getType() {
-            return type;
+            drawYAxis(graphHelper, graphData, height, textPaint);
         }
-    }
 
-    private static class PrecipitationCurveGraphPoint implements GraphHelper.IGraphPoint {
-        private final float x;
-        private final float y;
-        private final int color;
+        @Override
+        public void onDrawCrosshair(@NonNull Canvas canvas, int width, int height, float start, float end, float x) {
+            int i = getNearestIndex(x);
 
-        public PrecipitationCurveGraphPoint(ColorHelper colorHelper,
-                                            float x,
-                                            float y,
-                                            PrecipitationGraphPoint prevPoint,
-                                            PrecipitationGraphPoint nextPoint) {
-            this.x = x;
-            this.y = y;
+            GraphHelper.GraphBounds temperatureGraphBounds = getTemperatureGraphBounds(graphData, (int) start, (int) end);
+            RectF graphRect = graphHelper.getGraphRect(getGraphRegion(width, height));
 
-            this.color = prevPoint.getType() == nextPoint.getType() ?
-                    colorHelper.getPrecipColor(prevPoint.getType()) :
-                    ColorUtils.blendColors(colorHelper.getPrecipColor(nextPoint.getType()),
-                            colorHelper.getPrecipColor(prevPoint.getType()),
-                            (nextPoint.getX() - x) / (nextPoint.getX() - prevPoint.getX()) * 100.);
-        }
+            float xCoord = graphHelper.getXCoord(temperatureGraphBounds, graphRect, graphData.x[i]);
+            float yCoord = graphHelper.getYCoord(temperatureGraphBounds, graphRect, graphData.temperaturePoints.y[i]);
 
-        @Override
-        public float getX() {
-            return x;
-        }
+            crosshairPaint.setColor(ContextCompat.getColor(getContext(), R.color.text_primary));
+            canvas.drawLine(xCoord, graphRect.top, xCoord, graphRect.bottom, crosshairPaint);
 
-        @Override
-        public float getY() {
-            return y;
-        }
+            fillPaint.setColor(graphData.temperaturePoints.color[i]);
+            canvas.drawCircle(xCoord, yCoord, TEXT_SIZE / 3f, fillPaint);
 
-        @Override
-        public Paint getPaint(Paint paint) {
-            paint.setColor(color);
+            String label = graphData.xGraphLabels[i] + " " + graphData.temperatureLabels[i];
+            float halfLabelWidth = textPaint.measureText(label) / 2f;
 
-            return paint;
+            textPaint.setColor(ContextCompat.getColor(getContext(), R.color.text_primary_emphasis));
+            textPaint.setTextAlign(Paint.Align.CENTER);
+            canvas.drawText(label,
+                    Math.min(Math.max(xCoord, LEFT_PADDING + halfLabelWidth), width - halfLabelWidth),
+                    TOP_PADDING + TEXT_SIZE,
+                    textPaint);
         }
-    }
 
-    private static class XGraphLabel implements GraphHelper.IGraphLabel {
-        private final int x;
-        private final String label;
+        private int getNearestIndex(float x) {
+            int i = Arrays.binarySearch(graphData.x, 0, graphData.count, x);
 
-        public XGraphLabel(int x, String label) {
-            this.x = x;
-            this.label = label;
-        }
-
-        @Override
-        public String getLabel() {
-            return label;
-        }
+            if (i >= 0) {
+                return i;
+            }
 
-        @Override
-        public float getX() {
-            return x;
-        }
+            int next = Math.min(-i - 1, graphData.count - 1);
+            int prev = Math.max(next - 1, 0);
 
-        @Override
-        public Paint getPaint(Paint paint) {
-            return paint;
+            return x - graphData.x[prev] <= graphData.x[next] - x ? prev : next;
         }
     }
 
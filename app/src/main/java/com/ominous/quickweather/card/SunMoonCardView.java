@@ -39,13 +39,15 @@ import androidx.core.content.ContextCompat;
 
 import com.ominous.quickweather.R;
 import com.ominous.quickweather.data.WeatherModel;
+import com.ominous.quickweather.util.AstronomyHelper;
+import com.ominous.quickweather.util.BitmapPool;
 import com.ominous.quickweather.util.GraphHelper;
 import com.ominous.quickweather.util.WeatherUtils;
 import com.ominous.tylerutils.async.Promise;
 import com.ominous.tylerutils.util.LocaleUtils;
 import com.ominous.tylerutils.util.ViewUtils;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
@@ -64,6 +66,7 @@ public class SunMoonCardView extends BaseCardView {
     private boolean isSunShown = true;
     private Bitmap sunGraphBitmap;
     private Bitmap moonGraphBitmap;
+    private volatile int renderGeneration = 0; //incremented to cancel stale renders
 
     private int dayIndex;
 
@@ -128,8 +131,8 @@ public class SunMoonCardView extends BaseCardView {
     public void update(WeatherModel weatherModel, int position) {
         this.weatherModel = weatherModel;
 
-        sunGraphBitmap = null;
-        moonGraphBitmap = null;
+        renderGeneration++;
+        releaseGraphBitmaps();
 
         shouldGenerateGraph = true;
         setState(true);
@@ -202,18 +205,61 @@ public class SunMoonCardView extends BaseCardView {
     }
 
     private void generateGraph(WeatherModel weatherModel) {
+        final int generation = ++renderGeneration;
+
         Promise
                 .create(weatherModel)
                 .then((m) -> {
-                    sunGraphBitmap = generateCelestialGraph(true);
-
-                    mainThreadHandler.post(() ->
-                            graphImageView.setImageBitmap(sunGraphBitmap));//foreground
-                }).then(a -> {
-                    moonGraphBitmap = generateCelestialGraph(false);
+                    if (generation != renderGeneration) {
+                        return;
+                    }
+
+                    Bitmap sunBitmap = generateCelestialGraph(true);
+
+                    mainThreadHandler.post(() -> {
+                        if (generation == renderGeneration) {
+                            releaseGraphBitmaps();
+                            sunGraphBitmap = sunBitmap;
+
+                            if (isSunShown) {
+                                graphImageView.setImageBitmap(sunGraphBitmap);//foreground
+                            }
+                        } else {
+                            BitmapPool.getInstance().release(sunBitmap);
+                        }
+                    });
+
+                    if (generation != renderGeneration) {
+                        return;
+                    }
+
+                    Bitmap moonBitmap = generateCelestialGraph(false);
+
+                    mainThreadHandler.post(() -> {
+                        if (generation == renderGeneration) {
+                            moonGraphBitmap = moonBitmap;
+
+                            if (!isSunShown) {
+                                graphImageView.setImageBitmap(moonGraphBitmap);
+                            }
+                        } else {
+                            BitmapPool.getInstance().release(moonBitmap);
+                        }
+                    });
                 });
     }
 
+    //Only called on the main thread, once the bitmaps are no longer displayed or about to be replaced
+    private void releaseGraphBitmaps() {
+        graphImageView.setImageBitmap(null);
+
+        BitmapPool.getInstance().release(sunGraphBitmap);
+        BitmapPool.getInstance().release(moonGraphBitmap);
+
+        sunGraphBitmap = null;
+        moonGraphBitmap = null;
+    }
+
     private Bitmap generateCelestialGraph(boolean isSun) {
         final double FRAC = 2 * Math.PI / 24;
         final int width = this.getMeasuredWidth()
@@ -233,12 +279,12 @@ public class SunMoonCardView extends BaseCardView {
         int emphasisColor = ContextCompat.getColor(getContext(), R.color.text_primary_emphasis);
         int normalColor = ContextCompat.getColor(getContext(), R.color.sunmoon_normal_color);
 
-        ArrayList<CelestialGraphPoint> celestialPoints = new ArrayList<>(24);
-        ArrayList<CelestialGraphPoint> horizonPoints = new ArrayList<>(24);
+        float[] hours = new float[25];
+        float[] celestialY = new float[25];
+        float[] horizonY = new float[25];
 
         Calendar currentTime = Calendar.getInstance(weatherModel.currentWeather.timezone);
         currentTime.setTimeInMillis(weatherModel.currentWeather.timestamp * 1000);
-        int currentMonth = currentTime.get(Calendar.MONTH);
 
         Calendar riseTime = Calendar.getInstance(weatherModel.currentWeather.timezone);
         riseTime.setTimeInMillis(isSun ?
@@ -250,13 +296,22 @@ public class SunMoonCardView extends BaseCardView {
                 weatherModel.currentWeather.daily[dayIndex].sunset * 1000 :
                 weatherModel.currentWeather.daily[dayIndex].moonset * 1000);
 
-        boolean is24HourSun = weatherModel.currentWeather.daily[0].sunrise == 0 &&
-                ((weatherModel.weatherLocation.latitude < 0 && (currentMonth <= 3 || currentMonth >= 9)) ||
-                        (weatherModel.weatherLocation.latitude > 0 && (currentMonth >= 3 && currentMonth <= 9)));
+        boolean is24HourSun = false;
+        boolean is24HourDarkness = false;
 
-        boolean is24HourDarkness = weatherModel.currentWeather.daily[0].sunrise == 0 &&
-                ((weatherModel.weatherLocation.latitude > 0 && (currentMonth <= 3 || currentMonth >= 9)) ||
-                        (weatherModel.weatherLocation.latitude < 0 && (currentMonth >= 3 && currentMonth <= 9)));
+        if (weatherModel.currentWeather.daily[0].sunrise == 0 && weatherModel.locationPair != null) {
+            Calendar day = Calendar.getInstance(weatherModel.currentWeather.timezone);
+            day.setTimeInMillis(weatherModel.currentWeather.daily[dayIndex].dt * 1000);
+
+            AstronomyHelper.SunInfo sunInfo = AstronomyHelper.getInstance().getSunInfo(
+                    weatherModel.currentWeather.timezone,
+                    day,
+                    weatherModel.locationPair.first,
+                    weatherModel.locationPair.second);
+
+            is24HourSun = sunInfo.isAlwaysUp;
+            is24HourDarkness = sunInfo.isAlwaysDown;
+        }
 
         float riseXcoord = riseTime.get(Calendar.HOUR_OF_DAY) + riseTime.get(Calendar.MINUTE) / 60f;
         float setXcoord = setTime.get(Calendar.HOUR_OF_DAY) + setTime.get(Calendar.MINUTE) / 60f;
@@ -269,22 +324,14 @@ public class SunMoonCardView extends BaseCardView {
         }
 
         for (int i = 0; i < 25; i++) {
-            celestialPoints.add(new CelestialGraphPoint(
-                    i,
-                    1f - (float) Math.cos(FRAC * (i + offset)),
-                    normalColor
-            ));
-
-            horizonPoints.add(new CelestialGraphPoint(
-                    i,
-                    riseYCoord,
-                    emphasisColor
-            ));
+            hours[i] = i;
+            celestialY[i] = 1f - (float) Math.cos(FRAC * (i + offset));
+            horizonY[i] = riseYCoord;
         }
 
         int segments = 5;
-        ArrayList<CelestialGraphPoint> celestialCurve = getCelestialCurve(celestialPoints, segments);
-        ArrayList<CelestialGraphPoint> horizonCurve = getCelestialCurve(horizonPoints, segments);
+        GraphHelper.GraphSeries celestialCurve = getCelestialCurve(hours, celestialY, segments, normalColor);
+        GraphHelper.GraphSeries horizonCurve = getCelestialCurve(hours, horizonY, segments, emphasisColor);
 
         RectF graphRegion = new RectF(SUNMOON_SIZE, SUNMOON_SIZE, width - SUNMOON_SIZE, height - SUNMOON_SIZE);
 
@@ -378,76 +425,12 @@ public class SunMoonCardView extends BaseCardView {
         return graphHelper.getBitmap();
     }
 
-    //Based on https://stackoverflow.com/a/15528789
-    private ArrayList<CelestialGraphPoint> getCelestialCurve(
-            ArrayList<CelestialGraphPoint> pts,
-            int segments) {
-        //noinspection UnnecessaryLocalVariable
-        final float segmentsF = segments;
-        final float tension = 0.5f;
-
-        final ArrayList<CelestialGraphPoint> ptsCopy = new ArrayList<>(pts.size() + 2);
-        final ArrayList<CelestialGraphPoint> ptsCurve = new ArrayList<>(pts.size() * segments);
-
-        ptsCopy.add(pts.get(0));
-        ptsCopy.addAll(pts);
-        ptsCopy.add(pts.get(pts.size() - 1));
-
-        for (int i = 1, l = ptsCopy.size() - 2; i < l; i++) {
-            for (int t = 0; t < segments; t++) {
-
-                float st = t / segmentsF;
-                float st2 = st * st;
-                float st3 = st2 * st;
-                float c1 = 2 * st3 - 3 * st2 + 1;
-                float c2 = -2 * st3 + 3 * st2;
-                float c3 = st3 - 2 * st2 + st;
-                float c4 = st3 - st2;
-
-                ptsCurve.add(new CelestialGraphPoint(
-
-                        c1 * ptsCopy.get(i).getX() +
-                                c2 * ptsCopy.get(i + 1).getX() +
-                                c3 * (ptsCopy.get(i + 1).getX() - ptsCopy.get(i - 1).getX()) * tension +
-                                c4 * (ptsCopy.get(i + 2).getX() - ptsCopy.get(i).getX()) * tension,
-                        c1 * ptsCopy.get(i).getY() +
-                                c2 * ptsCopy.get(i + 1).getY() +
-                                c3 * (ptsCopy.get(i + 1).getY() - ptsCopy.get(i - 1).getY()) * tension +
-                                c4 * (ptsCopy.get(i + 2).getY() - ptsCopy.get(i).getY()) * tension,
-                        ptsCopy.get(i).color
-                ));
-            }
-        }
-
-        return ptsCurve;
-    }
-
-    public static class CelestialGraphPoint implements GraphHelper.IGraphPoint {
-        public final float x;
-        public final float y;
-        public final int color;
-
-        public CelestialGraphPoint(float x, float y, int color) {
-            this.x = x;
-            this.y = y;
-            this.color = color;
-        }
-
-        @Override
-        public float getX() {
-            return x;
-        }
+    private GraphHelper.GraphSeries getCelestialCurve(float[] x, float[] y, int segments, int color) {
+        GraphHelper.GraphSeries curve = new GraphHelper.GraphSeries((x.length - 1) * segments);
 
-        @Override
-        public float getY() {
-            return y;
-        }
-
-        @Override
-        public Paint getPaint(Paint paint) {
-            paint.setColor(color);
+        curve.size = GraphHelper.getCurve(x, y, x.length, segments, curve.x, curve.y);
+        Arrays.fill(curve.color, 0, curve.size, color);
 
-            return paint;
-        }
+        return curve;
     }
 }
@@ -20,11 +20,12 @@
 package com.ominous.quickweather.data;
 
 import java.io.Serializable;
+import java.util.Objects;
 import java.util.TimeZone;
 
 import androidx.annotation.DrawableRes;
 
-public class CurrentWeather {
+public class CurrentWeather implements Serializable {
     public long timestamp;
     public TimeZone timezone;
     public DataPoint current;
@@ -33,7 +34,22 @@ public class CurrentWeather {
     public DataPoint[] trihourly;
     public Alert[] alerts;
 
-    public static class DataPoint {
+    //Hash of the contents of the data points, so unchanged sections can be detected across refreshes
+    public static int getContentHash(DataPoint[] dataPoints) {
+        if (dataPoints == null) {
+            return 0;
+        }
+
+        int hash = 1;
+
+        for (DataPoint dataPoint : dataPoints) {
+            hash = 31 * hash + dataPoint.getContentHash();
+        }
+
+        return hash;
+    }
+
+    public static class DataPoint implements Serializable {
         public final long dt; //timestamp, seconds
         public double minTemp; // Fahrenheit
         public double maxTemp; // Fahrenheit
@@ -184,6 +200,13 @@ public class CurrentWeather {
             this.precipitationIntensity = precipitationIntensity;
             this.precipitationType = precipitationType;
         }
+
+        public int getContentHash() {
+            return Objects.hash(dt, minTemp, maxTemp, temp, feelsLike, visibility, humidity,
+                    windSpeed, windDeg, pressure, dewPoint, uvi, pop, weatherCode, weatherIconRes,
+                    weatherDescription, weatherLongDescription, precipitationIntensity, precipitationType,
+                    sunrise, sunset, moonrise, moonset, moonPhase);
+        }
     }
 
     //TODO clean up alert, create constructor
@@ -216,6 +239,10 @@ public class CurrentWeather {
                     .replaceAll("<.+?>", "");
         }
 
+        public int getContentHash() {
+            return Objects.hash(senderName, event, start, end, description);
+        }
+
         public AlertSeverity getSeverity() {
             return event.toLowerCase().contains("warning") ? AlertSeverity.WARNING :
                     event.toLowerCase().contains("watch") ? AlertSeverity.WATCH : AlertSeverity.ADVISORY;
@@ -0,0 +1,133 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.data;
+
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+
+import com.ominous.quickweather.pref.WeatherProvider;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//In-memory LRU cache of CurrentWeather by location. Entries expire based on when they were fetched,
+//not on the dt reported by the provider
+public class WeatherCache {
+    private final Map<Pair<Double, Double>, CacheEntry> entries;
+    private final Map<WeatherProvider, Long> expirations = new EnumMap<>(WeatherProvider.class);
+    private final long defaultExpiration;
+
+    private int maxEntries;
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    public WeatherCache(int maxEntries, long defaultExpiration) {
+        this.maxEntries = maxEntries;
+        this.defaultExpiration = defaultExpiration;
+
+        entries = new LinkedHashMap<Pair<Double, Double>, CacheEntry>(maxEntries, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Entry<Pair<Double, Double>, CacheEntry> eldest) {
+                return size() > WeatherCache.this.maxEntries;
+            }
+        };
+    }
+
+    //Only ever grows, so entries are not dropped while the saved locations are being prefetched
+    public synchronized void ensureCapacity(int maxEntries) {
+        this.maxEntries = Math.max(this.maxEntries, maxEntries);
+    }
+
+    public WeatherCache setExpiration(@NonNull WeatherProvider weatherProvider, long expiration) {
+        expirations.put(weatherProvider, expiration);
+
+        return this;
+    }
+
+    public long getExpiration(@NonNull WeatherProvider weatherProvider) {
+        Long expiration = expirations.get(weatherProvider);
+
+        return expiration == null ? defaultExpiration : expiration;
+    }
+
+    //Returns the cached weather regardless of its age
+    public synchronized CurrentWeather get(Pair<Double, Double> locationKey) {
+        CacheEntry cacheEntry = entries.get(locationKey);
+
+        return cacheEntry == null ? null : cacheEntry.currentWeather;
+    }
+
+    //Returns the cached weather only if it has not expired, counting the hit or miss
+    public synchronized CurrentWeather getValid(Pair<Double, Double> locationKey, @NonNull WeatherProvider weatherProvider) {
+        CacheEntry cacheEntry = entries.get(locationKey);
+
+        if (cacheEntry != null && !isExpired(cacheEntry, weatherProvider)) {
+            hitCount++;
+            return cacheEntry.currentWeather;
+        } else {
+            missCount++;
+            return null;
+        }
+    }
+
+    public synchronized long getFetched(Pair<Double, Double> locationKey) {
+        CacheEntry cacheEntry = entries.get(locationKey);
+
+        return cacheEntry == null ? 0 : cacheEntry.fetched;
+    }
+
+    public synchronized boolean isExpired(Pair<Double, Double> locationKey, @NonNull WeatherProvider weatherProvider) {
+        CacheEntry cacheEntry = entries.get(locationKey);
+
+        return cacheEntry == null || isExpired(cacheEntry, weatherProvider);
+    }
+
+    public synchronized void put(Pair<Double, Double> locationKey, @NonNull CurrentWeather currentWeather, long fetched) {
+        entries.put(locationKey, new CacheEntry(currentWeather, fetched));
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    private boolean isExpired(CacheEntry cacheEntry, WeatherProvider weatherProvider) {
+        return System.currentTimeMillis() - cacheEntry.fetched >= getExpiration(weatherProvider);
+    }
+
+    private static class CacheEntry {
+        final CurrentWeather currentWeather;
+        final long fetched; //timestamp, milliseconds
+
+        CacheEntry(CurrentWeather currentWeather, long fetched) {
+            this.currentWeather = currentWeather;
+            this.fetched = fetched;
+        }
+    }
+}
@@ -21,13 +21,17 @@ package com.ominous.quickweather.data;
 
 import android.content.Context;
 import android.location.Location;
+import android.util.Log;
 import android.util.Pair;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.MutableLiveData;
 
+import com.ominous.quickweather.BuildConfig;
 import com.ominous.quickweather.R;
+import com.ominous.quickweather.api.HttpClient;
+import com.ominous.quickweather.api.HttpStatusException;
 import com.ominous.quickweather.api.openmeteo.OpenMeteo;
 import com.ominous.quickweather.api.openweather.OpenWeatherMap;
 import com.ominous.quickweather.location.LocationDisabledException;
@@ -38,31 +42,51 @@ import com.ominous.quickweather.pref.OwmApiVersion;
 import com.ominous.quickweather.pref.WeatherProvider;
 import com.ominous.quickweather.pref.WeatherPreferences;
 import com.ominous.tylerutils.async.Promise;
-import com.ominous.tylerutils.http.HttpException;
 
 import org.json.JSONException;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class WeatherDataManager {
-    private final Map<Pair<Double, Double>, CurrentWeather> currentWeatherCache = new HashMap<>();
-    private final int CACHE_EXPIRATION = 60 * 1000; //1 minute
+    private final static String TAG = "WeatherDataManager";
+
+    private final WeatherCache weatherCache = new WeatherCache(10, 10 * 60 * 1000)
+            .setExpiration(WeatherProvider.OPENWEATHERMAP, 10 * 60 * 1000) //10 minutes
+            .setExpiration(WeatherProvider.OPENMETEO, 15 * 60 * 1000); //15 minutes
+    private final Map<String, FutureTask<CurrentWeather>> inFlightRequests = new HashMap<>();
     private final int MAX_ATTEMPTS = 3;
+    private final int MAX_PREFETCH_THREADS = 3;
     private final int ATTEMPT_SLEEP_DURATION = 5000;
     private final WeatherLocationManager weatherLocationManager = WeatherLocationManager.getInstance();
+    private final ThreadPoolExecutor prefetchExecutor = new ThreadPoolExecutor(
+            MAX_PREFETCH_THREADS, MAX_PREFETCH_THREADS,
+            30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>());
 
     private WeatherProvider currentProvider = null;
 
     private static WeatherDataManager instance;
 
     private WeatherDataManager() {
-
+        prefetchExecutor.allowCoreThreadTimeOut(true);
     }
 
     public static WeatherDataManager getInstance() {
@@ -74,6 +98,11 @@ public class WeatherDataManager {
     }
 
     public Promise<Void, WeatherModel> getWeatherAsync(Context context, @Nullable MutableLiveData<WeatherModel> weatherLiveData, boolean obtainForecast, boolean isBackground) {
+        return getWeatherAsync(context, weatherLiveData, obtainForecast, isBackground, false);
+    }
+
+    //If deliverStale is set, an expired cached result is posted with the STALE status while it is refreshed
+    public Promise<Void, WeatherModel> getWeatherAsync(Context context, @Nullable MutableLiveData<WeatherModel> weatherLiveData, boolean obtainForecast, boolean isBackground, boolean deliverStale) {
         return Promise.create(a -> {
             WeatherModel result;
 
@@ -140,6 +169,20 @@ public class WeatherDataManager {
                     clearCache();
                 }
 
+                if (deliverStale && weatherLiveData != null) {
+                    CurrentWeather staleWeather = getCachedWeather(context, weatherProvider, locationKey);
+
+                    if (staleWeather != null && staleWeather.current != null &&
+                            (!obtainForecast || staleWeather.trihourly != null) &&
+                            weatherCache.isExpired(locationKey, weatherProvider)) {
+                        weatherLiveData.postValue(new WeatherModel(
+                                staleWeather,
+                                weatherLocation,
+                                locationKey,
+                                WeatherModel.WeatherStatus.STALE));
+                    }
+                }
+
                 String apiKey = weatherProvider == WeatherProvider.OPENMETEO ?
                         weatherPreferences.getOpenMeteoAPIKey() :
                         weatherPreferences.getOWMAPIKey();
@@ -148,22 +191,19 @@ public class WeatherDataManager {
                         weatherPreferences.getOpenMeteoInstance() :
                         null;
 
-                CurrentWeather currentWeather = getCurrentWeather(
-                        context,
-                        weatherProvider,
-                        apiKey,
-                        weatherProviderInstance,
-                        owmApiVersion,
-                        locationKey);
-
-                if (currentWeather != null &&
-                        currentWeather.trihourly == null &&
-                        weatherProvider != WeatherProvider.OPENMETEO &&
-                        obtainForecast) {
-                    currentWeather.trihourly = getForecastWeather(context, weatherProvider, apiKey, locationKey);
-                }
+                final WeatherProvider finalWeatherProvider = weatherProvider;
+                final OwmApiVersion finalOwmApiVersion = owmApiVersion;
 
-                currentWeatherCache.put(locationKey, currentWeather);
+                CurrentWeather currentWeather = getWeatherCoalesced(
+                        getRequestKey(locationKey, weatherProvider, obtainForecast),
+                        () -> obtainWeather(
+                                context,
+                                finalWeatherProvider,
+                                apiKey,
+                                weatherProviderInstance,
+                                finalOwmApiVersion,
+                                locationKey,
+                                obtainForecast));
 
                 if (currentWeather == null || currentWeather.current == null ||
                         (obtainForecast && currentWeather.trihourly == null)) {
@@ -191,6 +231,12 @@ public class WeatherDataManager {
             } catch (LocationDisabledException e) {
                 result = new WeatherModel(WeatherModel.WeatherStatus.ERROR_LOCATION_DISABLED, context.getString(R.string.error_gps_disabled), e);
 
+                if (weatherLiveData != null) {
+                    weatherLiveData.postValue(result);
+                }
+            } catch (HttpStatusException e) {
+                result = new WeatherModel(WeatherModel.WeatherStatus.ERROR_OTHER, e.getMessage(), e);
+
                 if (weatherLiveData != null) {
                     weatherLiveData.postValue(result);
                 }
@@ -212,16 +258,263 @@ public class WeatherDataManager {
                 if (weatherLiveData != null) {
                     weatherLiveData.postValue(result);
                 }
-            } catch (HttpException e) {
-                result = new WeatherModel(WeatherModel.WeatherStatus.ERROR_OTHER, e.getMessage(), e);
+            }
 
-                if (weatherLiveData != null) {
-                    weatherLiveData.postValue(result);
+            logCacheStatistics(context);
+
+            return result;
+        });
+    }
+
+    //Warms the cache for every saved location, so switching locations does not wait on the network
+    public void prefetchWeatherAsync(Context context) {
+        Promise.create((a) -> {
+            WeatherPreferences weatherPreferences = WeatherPreferences.getInstance(context);
+            WeatherProvider weatherProvider = weatherPreferences.getWeatherProvider();
+            OwmApiVersion owmApiVersion = weatherPreferences.getOwmApiVersion();
+
+            //Only prefetch once getWeatherAsync has settled on the provider the cache belongs to
+            if (weatherProvider != currentProvider ||
+                    (weatherProvider == WeatherProvider.OPENWEATHERMAP && owmApiVersion == OwmApiVersion.DEFAULT)) {
+                return;
+            }
+
+            String apiKey = weatherProvider == WeatherProvider.OPENMETEO ?
+                    weatherPreferences.getOpenMeteoAPIKey() :
+                    weatherPreferences.getOWMAPIKey();
+
+            String weatherProviderInstance = weatherProvider == WeatherProvider.OPENMETEO ?
+                    weatherPreferences.getOpenMeteoInstance() :
+                    null;
+
+            ArrayList<Pair<Double, Double>> locationKeys = new ArrayList<>();
+            List<WeatherDatabase.WeatherLocation> weatherLocations = WeatherDatabase.getInstance(context).locationDao().getAllWeatherLocations();
+
+            //Every saved location, plus the current location
+            weatherCache.ensureCapacity(weatherLocations.size() + 1);
+
+            for (WeatherDatabase.WeatherLocation weatherLocation : weatherLocations) {
+                Pair<Double, Double> locationKey = new Pair<>(weatherLocation.latitude, weatherLocation.longitude);
+
+                if (!weatherLocation.isCurrentLocation && !locationKeys.contains(locationKey)) {
+                    getCachedWeather(context, weatherProvider, locationKey);
+
+                    if (weatherCache.isExpired(locationKey, weatherProvider)) {
+                        locationKeys.add(locationKey);
+                    }
                 }
             }
 
-            return result;
+            if (locationKeys.isEmpty()) {
+                return;
+            }
+
+            if (weatherProvider == WeatherProvider.OPENMETEO) {
+                prefetchOpenMeteo(context, apiKey, weatherProviderInstance, locationKeys);
+            } else {
+                for (Pair<Double, Double> locationKey : locationKeys) {
+                    prefetchExecutor.execute(() -> {
+                        try {
+                            getWeatherCoalesced(
+                                    getRequestKey(locationKey, weatherProvider, false),
+                                    () -> obtainWeather(
+                                            context,
+                                            weatherProvider,
+                                            apiKey,
+                                            weatherProviderInstance,
+                                            owmApiVersion,
+                                            locationKey,
+                                            false));
+                        } catch (Throwable t) {
+                            t.printStackTrace();
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    //Open-Meteo fetches every location with one request. Each location is registered as in flight first,
+    //so a foreground request for one of them waits on the batch instead of fetching it again
+    private void prefetchOpenMeteo(Context context,
+                                   String apiKey,
+                                   String weatherProviderInstance,
+                                   List<Pair<Double, Double>> locationKeys) {
+        ArrayList<Pair<Double, Double>> batchLocationKeys = new ArrayList<>();
+        ArrayList<FutureTask<CurrentWeather>> batchTasks = new ArrayList<>();
+        FutureTask<CurrentWeather[]> batchRequest = new FutureTask<>(() -> {
+            double[] latitudes = new double[batchLocationKeys.size()];
+            double[] longitudes = new double[batchLocationKeys.size()];
+
+            for (int i = 0, l = batchLocationKeys.size(); i < l; i++) {
+                latitudes[i] = batchLocationKeys.get(i).first;
+                longitudes[i] = batchLocationKeys.get(i).second;
+            }
+
+            CurrentWeather[] currentWeathers = obtainWithRetries(() -> OpenMeteo.getInstance()
+                    .getCurrentWeather(context,
+                            latitudes,
+                            longitudes,
+                            apiKey,
+                            weatherProviderInstance));
+            long fetched = System.currentTimeMillis();
+
+            for (int i = 0, l = currentWeathers.length; i < l; i++) {
+                if (currentWeathers[i] != null) {
+                    weatherCache.put(batchLocationKeys.get(i), currentWeathers[i], fetched);
+                    saveCachedWeather(context, WeatherProvider.OPENMETEO, batchLocationKeys.get(i), currentWeathers[i]);
+                }
+            }
+
+            return currentWeathers;
         });
+
+        synchronized (inFlightRequests) {
+            for (Pair<Double, Double> locationKey : locationKeys) {
+                String requestKey = getRequestKey(locationKey, WeatherProvider.OPENMETEO, false);
+
+                if (!inFlightRequests.containsKey(requestKey)) {
+                    int index = batchLocationKeys.size();
+                    FutureTask<CurrentWeather> batchTask = new FutureTask<>(() -> getBatchResult(batchRequest, index));
+
+                    batchLocationKeys.add(locationKey);
+                    batchTasks.add(batchTask);
+                    inFlightRequests.put(requestKey, batchTask);
+                }
+            }
+        }
+
+        if (batchLocationKeys.isEmpty()) {
+            return;
+        }
+
+        batchRequest.run();
+
+        for (FutureTask<CurrentWeather> batchTask : batchTasks) {
+            batchTask.run();
+        }
+
+        synchronized (inFlightRequests) {
+            for (Pair<Double, Double> locationKey : batchLocationKeys) {
+                inFlightRequests.remove(getRequestKey(locationKey, WeatherProvider.OPENMETEO, false));
+            }
+        }
+
+        try {
+            batchRequest.get();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CurrentWeather getBatchResult(FutureTask<CurrentWeather[]> batchRequest, int index) throws Exception {
+        try {
+            return batchRequest.get()[index];
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the prefetch");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            throw cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        }
+    }
+
+    //Open-Meteo always returns the forecast, so requests with and without it are the same request
+    private String getRequestKey(Pair<Double, Double> locationKey, WeatherProvider weatherProvider, boolean obtainForecast) {
+        return locationKey.first + "," + locationKey.second + "," + weatherProvider + "," +
+                (obtainForecast && weatherProvider != WeatherProvider.OPENMETEO);
+    }
+
+    private CurrentWeather obtainWeather(Context context,
+                                         @NonNull WeatherProvider weatherProvider,
+                                         String apiKey,
+                                         String weatherProviderInstance,
+                                         OwmApiVersion owmApiVersion,
+                                         Pair<Double, Double> locationKey,
+                                         boolean obtainForecast) throws
+            JSONException, IOException, InstantiationException, IllegalAccessException {
+        CurrentWeather currentWeather = getCurrentWeather(
+                context,
+                weatherProvider,
+                apiKey,
+                weatherProviderInstance,
+                owmApiVersion,
+                locationKey);
+
+        boolean isUpdated = currentWeather != null &&
+                weatherCache.get(locationKey) != currentWeather;
+
+        if (isUpdated) {
+            weatherCache.put(locationKey, currentWeather, System.currentTimeMillis());
+        }
+
+        if (currentWeather != null &&
+                currentWeather.trihourly == null &&
+                weatherProvider != WeatherProvider.OPENMETEO &&
+                obtainForecast) {
+            currentWeather.trihourly = getForecastWeather(context, weatherProvider, apiKey, locationKey);
+            isUpdated = true;
+        }
+
+        if (isUpdated) {
+            saveCachedWeather(context, weatherProvider, locationKey, currentWeather);
+        }
+
+        return currentWeather;
+    }
+
+    //Concurrent callers asking for the same location, provider and forecast share a single request
+    private CurrentWeather getWeatherCoalesced(String requestKey, Callable<CurrentWeather> request) throws
+            JSONException, IOException, InstantiationException, IllegalAccessException {
+        FutureTask<CurrentWeather> requestTask;
+        boolean isOwner = false;
+
+        synchronized (inFlightRequests) {
+            requestTask = inFlightRequests.get(requestKey);
+
+            if (requestTask == null) {
+                requestTask = new FutureTask<>(request);
+                inFlightRequests.put(requestKey, requestTask);
+                isOwner = true;
+            }
+        }
+
+        if (isOwner) {
+            try {
+                requestTask.run();
+            } finally {
+                synchronized (inFlightRequests) {
+                    inFlightRequests.remove(requestKey);
+                }
+            }
+        }
+
+        try {
+            return requestTask.get();
+        } catch (InterruptedException e) {
+            //Reported like any other failed request, as an IOException
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the weather");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof JSONException) {
+                throw (JSONException) cause;
+            } else if (cause instanceof InstantiationException) {
+                throw (InstantiationException) cause;
+            } else if (cause instanceof IllegalAccessException) {
+                throw (IllegalAccessException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new RuntimeException(cause);
+            }
+        }
     }
 
     private CurrentWeather getCurrentWeather(Context context,
@@ -230,89 +523,71 @@ public class WeatherDataManager {
                                              String weatherProviderInstance,
                                              OwmApiVersion owmApiVersion,
                                              Pair<Double, Double> locationKey) throws
-            JSONException, HttpException, IOException, InstantiationException, IllegalAccessException {
-        Calendar now = Calendar.getInstance(TimeZone.getTimeZone("GMT"));
-        CurrentWeather newWeather = null;
+            JSONException, IOException, InstantiationException, IllegalAccessException {
+        getCachedWeather(context, weatherProvider, locationKey);
 
-        if (currentWeatherCache.containsKey(locationKey)) {
-            CurrentWeather previousWeather = currentWeatherCache.get(locationKey);
+        CurrentWeather previousWeather = weatherCache.getValid(locationKey, weatherProvider);
 
-            if (previousWeather != null && now.getTimeInMillis() - previousWeather.timestamp < CACHE_EXPIRATION) {
-                return previousWeather;
-            }
+        if (previousWeather != null) {
+            return previousWeather;
         }
 
-        int attempt = 0;
-        HttpException lastException = null;
-
-        do {
-            try {
-                if (weatherProvider == WeatherProvider.OPENWEATHERMAP) {
-                    if (owmApiVersion != null && owmApiVersion != OwmApiVersion.DEFAULT) {
-                        newWeather = OpenWeatherMap.getInstance().getCurrentWeather(
-                                context,
-                                owmApiVersion,
-                                locationKey.first,
-                                locationKey.second,
-                                apiKey);
-                    } else {
-                        throw new IllegalArgumentException("Illegal OwmApiVersion provided");
-                    }
-                } else if (weatherProvider == WeatherProvider.OPENMETEO) {
-                    newWeather = OpenMeteo.getInstance()
-                            .getCurrentWeather(context,
-                                    locationKey.first,
-                                    locationKey.second,
-                                    apiKey,
-                                    weatherProviderInstance);
+        return obtainWithRetries(() -> {
+            if (weatherProvider == WeatherProvider.OPENWEATHERMAP) {
+                if (owmApiVersion != null && owmApiVersion != OwmApiVersion.DEFAULT) {
+                    return OpenWeatherMap.getInstance().getCurrentWeather(
+                            context,
+                            owmApiVersion,
+                            locationKey.first,
+                            locationKey.second,
+                            apiKey);
                 } else {
-                    throw new IllegalArgumentException("Illegal WeatherProvider provided");
-                }
-            } catch (HttpException e) {
-                lastException = e;
-                try {
-                    Thread.sleep(ATTEMPT_SLEEP_DURATION);
-                } catch (InterruptedException ie) {
-                    ie.printStackTrace();
+                    throw new IllegalArgumentException("Illegal OwmApiVersion provided");
                 }
-            } catch (IOException | JSONException | InstantiationException |
-                     IllegalAccessException e) {
-                throw e;
-            } catch (Throwable e) {
-                throw new RuntimeException("Uncaught Exception occurred", e);
+            } else if (weatherProvider == WeatherProvider.OPENMETEO) {
+                return OpenMeteo.getInstance()
+                        .getCurrentWeather(context,
+                                locationKey.first,
+                                locationKey.second,
+                                apiKey,
+                                weatherProviderInstance);
+            } else {
+                throw new IllegalArgumentException("Illegal WeatherProvider provided");
             }
-        } while (newWeather == null && attempt++ < MAX_ATTEMPTS);
-
-        if (newWeather == null && lastException != null) {
-            throw lastException;
-        }
-
-        return newWeather;
+        });
     }
 
     private CurrentWeather.DataPoint[] getForecastWeather(Context context,
                                                         @NonNull WeatherProvider weatherProvider,
                                                         String apiKey,
                                                         Pair<Double, Double> locationKey) throws
-            JSONException, HttpException, IOException, InstantiationException, IllegalAccessException {
+            JSONException, IOException, InstantiationException, IllegalAccessException {
+        return obtainWithRetries(() -> {
+            if (weatherProvider == WeatherProvider.OPENWEATHERMAP) {
+                return OpenWeatherMap.getInstance()
+                        .getForecastWeather(
+                                context,
+                                locationKey.first,
+                                locationKey.second,
+                                apiKey);
+            } else {
+                throw new IllegalArgumentException("Illegal WeatherProvider provided");
+            }
+        });
+    }
+
+    //HTTP errors are retried, any other failure is thrown immediately
+    private <T> T obtainWithRetries(WeatherRequest<T> request) throws
+            JSONException, IOException, InstantiationException, IllegalAccessException {
         int attempt = 0;
-        HttpException lastException = null;
+        HttpStatusException lastException = null;
 
-        CurrentWeather.DataPoint[] newWeather = null;
+        T result = null;
 
         do {
             try {
-                if (weatherProvider == WeatherProvider.OPENWEATHERMAP) {
-                    newWeather = OpenWeatherMap.getInstance()
-                            .getForecastWeather(
-                                    context,
-                                    locationKey.first,
-                                    locationKey.second,
-                                    apiKey);
-                } else {
-                    throw new IllegalArgumentException("Illegal WeatherProvider provided");
-                }
-            } catch (HttpException e) {
+                result = request.obtain();
+            } catch (HttpStatusException e) {
                 lastException = e;
                 try {
                     Thread.sleep(ATTEMPT_SLEEP_DURATION);
@@ -325,16 +600,88 @@ public class WeatherDataManager {
             } catch (Throwable e) {
                 throw new RuntimeException("Uncaught Exception occurred", e);
             }
-        } while (newWeather == null && attempt++ < MAX_ATTEMPTS);
+        } while (result == null && attempt++ < MAX_ATTEMPTS);
 
-        if (newWeather == null && lastException != null) {
+        if (result == null && lastException != null) {
             throw lastException;
         }
 
-        return newWeather;
+        return result;
+    }
+
+    //Falls back to the persisted forecast when the in-memory cache is empty, e.g. after process death
+    private CurrentWeather getCachedWeather(Context context,
+                                            @NonNull WeatherProvider weatherProvider,
+                                            Pair<Double, Double> locationKey) {
+        CurrentWeather cachedWeather = weatherCache.get(locationKey);
+
+        if (cachedWeather == null) {
+            WeatherDatabase.WeatherForecast weatherForecast = WeatherDatabase.getInstance(context)
+                    .forecastDao()
+                    .find(locationKey.first, locationKey.second, weatherProvider);
+
+            if (weatherForecast != null &&
+                    weatherForecast.currentWeather != null &&
+                    weatherForecast.versionCode == BuildConfig.VERSION_CODE &&
+                    Locale.getDefault().toLanguageTag().equals(weatherForecast.locale)) {
+                try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(weatherForecast.currentWeather))) {
+                    cachedWeather = (CurrentWeather) objectInputStream.readObject();
+
+                    weatherCache.put(locationKey, cachedWeather, weatherForecast.fetched);
+                } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        return cachedWeather;
+    }
+
+    private void saveCachedWeather(Context context,
+                                   @NonNull WeatherProvider weatherProvider,
+                                   Pair<Double, Double> locationKey,
+                                   CurrentWeather currentWeather) {
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+            objectOutputStream.writeObject(currentWeather);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        WeatherDatabase.getInstance(context)
+                .forecastDao()
+                .insert(new WeatherDatabase.WeatherForecast(
+                        locationKey.first,
+                        locationKey.second,
+                        weatherProvider,
+                        weatherCache.getFetched(locationKey),
+                        BuildConfig.VERSION_CODE,
+                        Locale.getDefault().toLanguageTag(),
+                        byteArrayOutputStream.toByteArray()));
+    }
+
+    private void logCacheStatistics(Context context) {
+        Log.d(TAG, String.format(Locale.US, "Weather cache: %d hits, %d misses. HTTP cache hit ratio: %.2f",
+                weatherCache.getHitCount(),
+                weatherCache.getMissCount(),
+                HttpClient.getInstance(context).getCacheHitRatio()));
     }
 
     public void clearCache() {
-        currentWeatherCache.clear();
+        weatherCache.clear();
+    }
+
+    public void clearCache(Context context) {
+        clearCache();
+
+        Promise.create(a -> {
+            WeatherDatabase.getInstance(context).forecastDao().deleteAll();
+        });
+    }
+
+    private interface WeatherRequest<T> {
+        T obtain() throws JSONException, IOException, InstantiationException, IllegalAccessException;
     }
 }
@@ -23,14 +23,14 @@ import android.content.Context;
 import android.os.Parcel;
 import android.os.Parcelable;
 
-import com.ominous.tylerutils.async.Promise;
+import com.ominous.quickweather.pref.WeatherProvider;
 
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Database;
@@ -48,8 +48,8 @@ import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 @Database(
-        entities = {WeatherDatabase.WeatherNotification.class, WeatherDatabase.WeatherLocation.class, WeatherDatabase.WeatherCard.class},
-        version = 3,
+        entities = {WeatherDatabase.WeatherNotification.class, WeatherDatabase.WeatherLocation.class, WeatherDatabase.WeatherCard.class, WeatherDatabase.WeatherForecast.class},
+        version = 4,
         exportSchema = false)
 public abstract class WeatherDatabase extends RoomDatabase {
     final static Migration MIGRATION_1_2 = new Migration(1, 2) {
@@ -75,84 +75,85 @@ public abstract class WeatherDatabase extends RoomDatabase {
                     "(8,1,'FORECAST_DETAIL',3,1)");
         }
     };
+    final static Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `WeatherForecast` (`latitude` REAL NOT NULL, `longitude` REAL NOT NULL, `weatherProvider` TEXT NOT NULL, `fetched` INTEGER NOT NULL, `versionCode` INTEGER NOT NULL, `locale` TEXT, `currentWeather` BLOB, PRIMARY KEY(`latitude`, `longitude`, `weatherProvider`))");
+        }
+    };
     private static WeatherDatabase instance = null;
 
-    public static WeatherDatabase getInstance(Context context) {
+    //The default cards are added by the startup pipeline in QuickWeather
+    public static synchronized WeatherDatabase getInstance(Context context) {
         if (instance == null) {
             instance = Room
                     .databaseBuilder(context.getApplicationContext(), WeatherDatabase.class, "QuickWeather")
                     //.allowMainThreadQueries() //not recommended
-                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3)
+                    .addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4)
                     .build();
-
-            instance.initializeWeatherCards();
         }
 
         return instance;
     }
 
     //TODO better logging
+    //Failures are thrown, so the startup pipeline can retry on the next launch
+    @WorkerThread
     public void initializeWeatherCards() {
-        try {
-            Promise.create(a -> {
-                int order = 100;//add to the bottom
-
-                WeatherCardType[] defaultCurrentCards = new WeatherCardType[]{
-                        WeatherCardType.CURRENT_MAIN,
-                        WeatherCardType.ALERT,
-                        WeatherCardType.GRAPH,
-                        WeatherCardType.RADAR,
-                        WeatherCardType.CURRENT_FORECAST};
-
-                WeatherCardType[] defaultForecastCards = new WeatherCardType[]{
-                        WeatherCardType.FORECAST_MAIN,
-                        WeatherCardType.ALERT,
-                        WeatherCardType.GRAPH,
-                        WeatherCardType.FORECAST_DETAIL};
-
-                WeatherCardType[] additionalCards = new WeatherCardType[]{
-                        WeatherCardType.SUNMOON};
-
-                ArrayList<WeatherCardType> currentCards = new ArrayList<>();
-
-                for (WeatherCard card : cardDao().getCurrentWeatherCards()) {
-                    currentCards.add(card.weatherCardType);
-                }
-
-                ArrayList<WeatherCardType> forecastCards = new ArrayList<>();
-
-                for (WeatherCard card : cardDao().getForecastWeatherCards()) {
-                    forecastCards.add(card.weatherCardType);
-                }
-
-                for (WeatherCardType cardType : defaultCurrentCards) {
-                    if (!currentCards.contains(cardType)) {
-                        cardDao().insert(
-                                new WeatherCard(0, 0, cardType, order++, true));
-                    }
-                }
-
-                for (WeatherCardType cardType : defaultForecastCards) {
-                    if (!forecastCards.contains(cardType)) {
-                        cardDao().insert(
-                                new WeatherCard(0, 1, cardType, order++, true));
-                    }
-                }
-
-                for (WeatherCardType cardType : additionalCards) {
-                    if (!currentCards.contains(cardType)) {
-                        cardDao().insert(
-                                new WeatherCard(0, 0, cardType, order++, false));
-                    }
-
-                    if (!forecastCards.contains(cardType)) {
-                        cardDao().insert(
-                                new WeatherCard(0, 1, cardType, order++, false));
-                    }
-                }
-            }, Throwable::printStackTrace).await();
-        } catch (ExecutionException | InterruptedException e) {
-            e.printStackTrace();
+        int order = 100;//add to the bottom
+
+        WeatherCardType[] defaultCurrentCards = new WeatherCardType[]{
+                WeatherCardType.CURRENT_MAIN,
+                WeatherCardType.ALERT,
+                WeatherCardType.GRAPH,
+                WeatherCardType.RADAR,
+                WeatherCardType.CURRENT_FORECAST};
+
+        WeatherCardType[] defaultForecastCards = new WeatherCardType[]{
+                WeatherCardType.FORECAST_MAIN,
+                WeatherCardType.ALERT,
+                WeatherCardType.GRAPH,
+                WeatherCardType.FORECAST_DETAIL};
+
+        WeatherCardType[] additionalCards = new WeatherCardType[]{
+                WeatherCardType.SUNMOON};
+
+        ArrayList<WeatherCardType> currentCards = new ArrayList<>();
+
+        for (WeatherCard card : cardDao().getCurrentWeatherCards()) {
+            currentCards.add(card.weatherCardType);
+        }
+
+        ArrayList<WeatherCardType> forecastCards = new ArrayList<>();
+
+        for (WeatherCard card : cardDao().getForecastWeatherCards()) {
+            forecastCards.add(card.weatherCardType);
+        }
+
+        for (WeatherCardType cardType : defaultCurrentCards) {
+            if (!currentCards.contains(cardType)) {
+                cardDao().insert(
+                        new WeatherCard(0, 0, cardType, order++, true));
+            }
+        }
+
+        for (WeatherCardType cardType : defaultForecastCards) {
+            if (!forecastCards.contains(cardType)) {
+                cardDao().insert(
+                        new WeatherCard(0, 1, cardType, order++, true));
+            }
+        }
+
+        for (WeatherCardType cardType : additionalCards) {
+            if (!currentCards.contains(cardType)) {
+                cardDao().insert(
+                        new WeatherCard(0, 0, cardType, order++, false));
+            }
+
+            if (!forecastCards.contains(cardType)) {
+                cardDao().insert(
+                        new WeatherCard(0, 1, cardType, order++, false));
+            }
         }
     }
 
@@ -176,6 +177,8 @@ public abstract class WeatherDatabase extends RoomDatabase {
 
     abstract public WeatherCardDao cardDao();
 
+    abstract public WeatherForecastDao forecastDao();
+
     @Dao
     public interface WeatherLocationDao {
         @Insert(onConflict = OnConflictStrategy.IGNORE)
@@ -242,6 +245,18 @@ public abstract class WeatherDatabase extends RoomDatabase {
         void disableRadar();
     }
 
+    @Dao
+    public interface WeatherForecastDao {
+        @Insert(onConflict = OnConflictStrategy.REPLACE)
+        void insert(WeatherForecast weatherForecast);
+
+        @Query("SELECT * FROM WeatherForecast WHERE latitude = :latitude AND longitude = :longitude AND weatherProvider = :weatherProvider LIMIT 1")
+        WeatherForecast find(double latitude, double longitude, WeatherProvider weatherProvider);
+
+        @Query("DELETE FROM WeatherForecast")
+        void deleteAll();
+    }
+
     @Entity
     public static class WeatherLocation implements Parcelable {
         public final static Parcelable.Creator<WeatherLocation> CREATOR = new Parcelable.Creator<WeatherLocation>() {
@@ -341,4 +356,26 @@ public abstract class WeatherDatabase extends RoomDatabase {
             this.enabled = enabled;
         }
     }
+
+    @Entity(primaryKeys = {"latitude", "longitude", "weatherProvider"})
+    public static class WeatherForecast {
+        public final double latitude;
+        public final double longitude;
+        @NonNull
+        public final WeatherProvider weatherProvider;
+        public final long fetched; //timestamp, milliseconds
+        public final int versionCode;
+        public final String locale;
+        public final byte[] currentWeather; //serialized CurrentWeather
+
+        public WeatherForecast(double latitude, double longitude, @NonNull WeatherProvider weatherProvider, long fetched, int versionCode, String locale, byte[] currentWeather) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.weatherProvider = weatherProvider;
+            this.fetched = fetched;
+            this.versionCode = versionCode;
+            this.locale = locale;
+            this.currentWeather = currentWeather;
+        }
+    }
 }
@@ -56,6 +56,7 @@ public class WeatherModel {
     public enum WeatherStatus {
         UPDATING,
         OBTAINING_LOCATION,
+        STALE,
         SUCCESS,
         ERROR_OTHER,
         ERROR_LOCATION_UNAVAILABLE,
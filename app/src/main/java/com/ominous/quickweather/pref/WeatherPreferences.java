@@ -25,17 +25,15 @@ import android.content.SharedPreferences;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.WorkerThread;
 
 import com.ominous.quickweather.R;
 import com.ominous.quickweather.data.WeatherDatabase;
-import com.ominous.tylerutils.async.Promise;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.util.concurrent.ExecutionException;
-
 public class WeatherPreferences {
     private final static String PREFERENCES_NAME = "QuickWeather";
     private final static String PREFERENCE_UNIT_TEMPERATURE = "temperature";
@@ -53,6 +51,7 @@ public class WeatherPreferences {
     private final static String PREFERENCE_RADARQUALITY = "radarquality";
     private final static String PREFERENCE_RADARTHEME = "radartheme";
     private final static String PREFERENCE_EXPANDEDDETAILS = "expandeddetails";
+    private final static String PREFERENCE_COMPLETEDVERSION = "completedversion_";
     private final static String DEFAULT_VALUE = "";
 
     private static WeatherPreferences instance;
@@ -62,13 +61,10 @@ public class WeatherPreferences {
     private WeatherPreferences(Context context) {
         sharedPreferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
 
-        migrateLocationsToDb(context);
-        migrateHideRadarToDb(context);
-        removeOldPreferences();
         checkForMissingProvider();
     }
 
-    public static WeatherPreferences getInstance(Context context) {
+    public static synchronized WeatherPreferences getInstance(Context context) {
         if (instance == null) {
             instance = new WeatherPreferences(context);
         }
@@ -240,66 +236,71 @@ public class WeatherPreferences {
                 shouldShowAlertNotification();
     }
 
+    //Version of the app that last completed the given one-time task, or 0 if it never has
+    public int getCompletedVersion(@NonNull String task) {
+        return sharedPreferences.getInt(PREFERENCE_COMPLETEDVERSION + task, 0);
+    }
+
+    public void setCompletedVersion(@NonNull String task, int versionCode) {
+        sharedPreferences.edit().putInt(PREFERENCE_COMPLETEDVERSION + task, versionCode).apply();
+    }
+
+    //Moves settings from older versions into the database. Runs on a background thread during startup
+    @WorkerThread
+    public void migrate(Context context) {
+        migrateLocationsToDb(context);
+        removeOldPreferences();
+    }
+
     private void migrateLocationsToDb(Context context) {
         if (sharedPreferences.contains("locations")) {
+            WeatherDatabase weatherDatabase = WeatherDatabase.getInstance(context);
+
+            String selectedLocation = getPreference("default_location");
+
             try {
-                Promise.create((a) -> {
-                    WeatherDatabase weatherDatabase = WeatherDatabase.getInstance(context);
-
-                    String selectedLocation = getPreference("default_location");
-
-                    try {
-                        JSONArray locationsArray = new JSONArray(getPreference("locations", "[]"));
-
-                        boolean defaultLocationFound = false, currentLocationFound = false;
-                        for (int i = 0, l = locationsArray.length(); i < l; i++) {
-                            JSONObject o = locationsArray.getJSONObject(i);
-
-                            boolean isSelected = false, isCurrentLocation = false;
-                            String locationName = o.getString("location");
-
-                            if (!defaultLocationFound && locationName.equals(selectedLocation)) {
-                                isSelected = true;
-                                defaultLocationFound = true;
-                            }
-
-                            if (!currentLocationFound && locationName.equals(context.getString(R.string.text_current_location))) {
-                                isCurrentLocation = true;
-                                currentLocationFound = true;
-                            }
-
-                            weatherDatabase.locationDao().insert(
-                                    new WeatherDatabase.WeatherLocation(
-                                            0,
-                                            o.getDouble("latitude"),
-                                            o.getDouble("longitude"),
-                                            locationName,
-                                            isSelected,
-                                            isCurrentLocation,
-                                            i));
-                        }
-                    } catch (JSONException e) {
-                        //
+                JSONArray locationsArray = new JSONArray(getPreference("locations", "[]"));
+
+                boolean defaultLocationFound = false, currentLocationFound = false;
+                for (int i = 0, l = locationsArray.length(); i < l; i++) {
+                    JSONObject o = locationsArray.getJSONObject(i);
+
+                    boolean isSelected = false, isCurrentLocation = false;
+                    String locationName = o.getString("location");
+
+                    if (!defaultLocationFound && locationName.equals(selectedLocation)) {
+                        isSelected = true;
+                        defaultLocationFound = true;
                     }
-                }).await();
-            } catch (ExecutionException | InterruptedException e) {
-                e.printStackTrace();
+
+                    if (!currentLocationFound && locationName.equals(context.getString(R.string.text_current_location))) {
+                        isCurrentLocation = true;
+                        currentLocationFound = true;
+                    }
+
+                    weatherDatabase.locationDao().insert(
+                            new WeatherDatabase.WeatherLocation(
+                                    0,
+                                    o.getDouble("latitude"),
+                                    o.getDouble("longitude"),
+                                    locationName,
+                                    isSelected,
+                                    isCurrentLocation,
+                                    i));
+                }
+            } catch (JSONException e) {
+                //
             }
         }
     }
 
-    private void migrateHideRadarToDb(Context context) {
+    //Disables the RADAR card, so it has to run after the default cards have been added
+    @WorkerThread
+    public void migrateHideRadarToDb(Context context) {
         if (getPreference(PREFERENCE_RADARQUALITY, DEFAULT_VALUE).equals("disabled")) {
-            try {
-                Promise.create(context)
-                        .then(c -> {
-                            WeatherDatabase.getInstance(c).cardDao().disableRadar();
-
-                            setRadarQuality(RadarQuality.HIGH);
-                        }).await();
-            } catch (ExecutionException | InterruptedException e) {
-                e.printStackTrace();
-            }
+            WeatherDatabase.getInstance(context).cardDao().disableRadar();
+
+            setRadarQuality(RadarQuality.HIGH);
         }
     }
 
@@ -0,0 +1,159 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.util;
+
+import org.shredzone.commons.suncalc.MoonIllumination;
+import org.shredzone.commons.suncalc.MoonTimes;
+import org.shredzone.commons.suncalc.SunTimes;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+//Ephemeris results only depend on the location and the local date, so they are computed once and cached
+public class AstronomyHelper {
+    private final static int MAX_ENTRIES = 64;
+
+    private static AstronomyHelper instance;
+
+    private final Map<String, MoonInfo> moonCache = createCache();
+    private final Map<String, SunInfo> sunCache = createCache();
+
+    private AstronomyHelper() {
+
+    }
+
+    public static AstronomyHelper getInstance() {
+        if (instance == null) {
+            instance = new AstronomyHelper();
+        }
+
+        return instance;
+    }
+
+    public synchronized MoonInfo getMoonInfo(TimeZone timezone, Calendar day, double latitude, double longitude) {
+        String key = getKey(timezone, day, latitude, longitude);
+        MoonInfo moonInfo = moonCache.get(key);
+
+        if (moonInfo == null) {
+            Calendar startOfDay = getStartOfDay(timezone, day);
+
+            MoonTimes moonTimes = MoonTimes.compute()
+                    .timezone(timezone)
+                    .on(startOfDay)
+                    .at(round(latitude), round(longitude))
+                    .execute();
+
+            MoonIllumination moonIllumination = MoonIllumination.compute()
+                    .timezone(timezone)
+                    .on(startOfDay)
+                    .execute();
+
+            Date moonRise = moonTimes.getRise();
+            Date moonSet = moonTimes.getSet();
+
+            moonInfo = new MoonInfo(
+                    moonRise == null ? 0L : moonRise.getTime() / 1000L,
+                    moonSet == null ? 0L : moonSet.getTime() / 1000L,
+                    (moonIllumination.getPhase() + 180.0) / 360.0);
+
+            moonCache.put(key, moonInfo);
+        }
+
+        return moonInfo;
+    }
+
+    public synchronized SunInfo getSunInfo(TimeZone timezone, Calendar day, double latitude, double longitude) {
+        String key = getKey(timezone, day, latitude, longitude);
+        SunInfo sunInfo = sunCache.get(key);
+
+        if (sunInfo == null) {
+            SunTimes sunTimes = SunTimes.compute()
+                    .timezone(timezone)
+                    .on(getStartOfDay(timezone, day))
+                    .at(round(latitude), round(longitude))
+                    .execute();
+
+            sunInfo = new SunInfo(sunTimes.isAlwaysUp(), sunTimes.isAlwaysDown());
+
+            sunCache.put(key, sunInfo);
+        }
+
+        return sunInfo;
+    }
+
+    private static <T> Map<String, T> createCache() {
+        return new LinkedHashMap<String, T>(MAX_ENTRIES, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Entry<String, T> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    }
+
+    private static Calendar getStartOfDay(TimeZone timezone, Calendar day) {
+        Calendar startOfDay = Calendar.getInstance(timezone);
+
+        startOfDay.clear();
+        startOfDay.set(day.get(Calendar.YEAR), day.get(Calendar.MONTH), day.get(Calendar.DAY_OF_MONTH));
+
+        return startOfDay;
+    }
+
+    //Rounded to ~1km, which does not noticeably change rise and set times
+    private static double round(double coordinate) {
+        return Math.round(coordinate * 100) / 100.0;
+    }
+
+    private static String getKey(TimeZone timezone, Calendar day, double latitude, double longitude) {
+        return String.format(Locale.US, "%.2f,%.2f,%s,%d-%d-%d",
+                round(latitude),
+                round(longitude),
+                timezone.getID(),
+                day.get(Calendar.YEAR),
+                day.get(Calendar.MONTH),
+                day.get(Calendar.DAY_OF_MONTH));
+    }
+
+    public static class MoonInfo {
+        public final long moonrise; //timestamp, seconds
+        public final long moonset; //timestamp, seconds
+        public final double moonPhase; // 0,1: "new moon", 0.5: "full moon"
+
+        MoonInfo(long moonrise, long moonset, double moonPhase) {
+            this.moonrise = moonrise;
+            this.moonset = moonset;
+            this.moonPhase = moonPhase;
+        }
+    }
+
+    public static class SunInfo {
+        public final boolean isAlwaysUp;
+        public final boolean isAlwaysDown;
+
+        SunInfo(boolean isAlwaysUp, boolean isAlwaysDown) {
+            this.isAlwaysUp = isAlwaysUp;
+            this.isAlwaysDown = isAlwaysDown;
+        }
+    }
+}
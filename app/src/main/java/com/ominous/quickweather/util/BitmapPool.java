@@ -0,0 +1,106 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.util;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+//Graph bitmaps are redrawn on every update, so released ones are kept and reused for the next
+//render of the same size instead of being left to the GC
+public class BitmapPool {
+    private final static long MAX_SIZE = 16 * 1024 * 1024; //16 MiB
+
+    private static BitmapPool instance;
+
+    private final Map<String, ArrayDeque<Bitmap>> bitmaps = new HashMap<>();
+    private long size = 0;
+
+    private BitmapPool() {
+
+    }
+
+    public static synchronized BitmapPool getInstance() {
+        if (instance == null) {
+            instance = new BitmapPool();
+        }
+
+        return instance;
+    }
+
+    //Returns a cleared bitmap
+    public Bitmap acquire(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = null;
+
+        synchronized (this) {
+            ArrayDeque<Bitmap> pooledBitmaps = bitmaps.get(getKey(width, height, config));
+
+            if (pooledBitmaps != null) {
+                bitmap = pooledBitmaps.poll();
+            }
+
+            if (bitmap != null) {
+                size -= bitmap.getAllocationByteCount();
+            }
+        }
+
+        if (bitmap == null) {
+            return Bitmap.createBitmap(width, height, config);
+        }
+
+        bitmap.eraseColor(Color.TRANSPARENT);
+
+        return bitmap;
+    }
+
+    //The bitmap must no longer be displayed or drawn to
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) {
+            return;
+        }
+
+        long bytes = bitmap.getAllocationByteCount();
+
+        if (size + bytes <= MAX_SIZE) {
+            String key = getKey(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+            ArrayDeque<Bitmap> pooledBitmaps = bitmaps.get(key);
+
+            if (pooledBitmaps == null) {
+                pooledBitmaps = new ArrayDeque<>();
+                bitmaps.put(key, pooledBitmaps);
+            }
+
+            pooledBitmaps.push(bitmap);
+            size += bytes;
+        }
+    }
+
+    public synchronized void clear() {
+        bitmaps.clear();
+        size = 0;
+    }
+
+    private static String getKey(int width, int height, Bitmap.Config config) {
+        return width + "x" + height + ":" + config;
+    }
+}
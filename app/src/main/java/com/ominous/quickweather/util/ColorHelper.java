@@ -22,7 +22,6 @@ package com.ominous.quickweather.util;
 import android.content.Context;
 import android.content.res.ColorStateList;
 import android.content.res.TypedArray;
-import android.util.SparseIntArray;
 
 import androidx.annotation.ColorInt;
 import androidx.appcompat.app.AppCompatDelegate;
@@ -34,97 +33,44 @@ import com.ominous.quickweather.pref.WeatherPreferences;
 import com.ominous.tylerutils.util.ColorUtils;
 
 public class ColorHelper {
+    private final static int MIN_TEMPERATURE = 20;
+    private final static int MAX_TEMPERATURE = 110;
+    private final static int STEPS_PER_DEGREE = 10; //0.1F resolution
+    private final static int DEGREES_PER_COLOR = 10;
+
+    //One colour every DEGREES_PER_COLOR, starting at MIN_TEMPERATURE
+    private final static int[] TEMPERATURE_COLORS = {
+            R.color.color_pink,
+            R.color.color_purple_light,
+            R.color.color_blue_light,
+            R.color.color_blue,
+            R.color.color_green,
+            R.color.color_yellow,
+            R.color.color_orange,
+            R.color.color_red,
+            R.color.color_pink,
+            R.color.color_purple_light
+    };
+
     @ColorInt
     public final int COLOR_TEXT_BLACK;
     @ColorInt
     public final int COLOR_TEXT_WHITE;
 
-    @ColorInt
-    private final int COLOR_RAIN;
     @ColorInt
     private final int COLOR_SNOW;
-    @ColorInt
-    private final int COLOR_MIX;
 
-    private final SparseIntArray adjustedTemperatureColors;
-    private final SparseIntArray adjustedTemperatureColorsDark;
-    private final SparseIntArray temperatureColors;
+    private volatile TemperaturePalette temperaturePalette;
 
     private static ColorHelper instance;
 
-    //TODO Possible bug when it changes from light to dark mode and the colors are cached
     private ColorHelper(Context context) {
-        setNightMode(context);
-
-        final int color_pink = ContextCompat.getColor(context, R.color.color_pink);
-        final int color_purple_light = ContextCompat.getColor(context, R.color.color_purple_light);
-        final int color_blue_light = ContextCompat.getColor(context, R.color.color_blue_light);
-        final int color_blue = ContextCompat.getColor(context, R.color.color_blue);
-        final int color_green = ContextCompat.getColor(context, R.color.color_green);
-        final int color_yellow = ContextCompat.getColor(context, R.color.color_yellow);
-        final int color_orange = ContextCompat.getColor(context, R.color.color_orange);
-        final int color_red = ContextCompat.getColor(context, R.color.color_red);
-
-        final int adj_color_pink = getAdjustedColor(context, color_pink, false);
-        final int adj_color_purple_light = getAdjustedColor(context, color_purple_light, false);
-        final int adj_color_blue_light = getAdjustedColor(context, color_blue_light, false);
-        final int adj_color_blue = getAdjustedColor(context, color_blue, false);
-        final int adj_color_green = getAdjustedColor(context, color_green, false);
-        final int adj_color_yellow = getAdjustedColor(context, color_yellow, false);
-        final int adj_color_orange = getAdjustedColor(context, color_orange, false);
-        final int adj_color_red = getAdjustedColor(context, color_red, false);
-
-        final int adj_color_pink_dark = getAdjustedColor(context, color_pink, true);
-        final int adj_color_purple_light_dark = getAdjustedColor(context, color_purple_light, true);
-        final int adj_color_blue_light_dark = getAdjustedColor(context, color_blue_light, true);
-        final int adj_color_blue_dark = getAdjustedColor(context, color_blue, true);
-        final int adj_color_green_dark = getAdjustedColor(context, color_green, true);
-        final int adj_color_yellow_dark = getAdjustedColor(context, color_yellow, true);
-        final int adj_color_orange_dark = getAdjustedColor(context, color_orange, true);
-        final int adj_color_red_dark = getAdjustedColor(context, color_red, true);
-
-        adjustedTemperatureColors = new SparseIntArray(10);
-        adjustedTemperatureColors.append(20, adj_color_pink);
-        adjustedTemperatureColors.append(30, adj_color_purple_light);
-        adjustedTemperatureColors.append(40, adj_color_blue_light);
-        adjustedTemperatureColors.append(50, adj_color_blue);
-        adjustedTemperatureColors.append(60, adj_color_green);
-        adjustedTemperatureColors.append(70, adj_color_yellow);
-        adjustedTemperatureColors.append(80, adj_color_orange);
-        adjustedTemperatureColors.append(90, adj_color_red);
-        adjustedTemperatureColors.append(100, adj_color_pink);
-        adjustedTemperatureColors.append(110, adj_color_purple_light);
-
-        adjustedTemperatureColorsDark = new SparseIntArray(10);
-        adjustedTemperatureColorsDark.append(20, adj_color_pink_dark);
-        adjustedTemperatureColorsDark.append(30, adj_color_purple_light_dark);
-        adjustedTemperatureColorsDark.append(40, adj_color_blue_light_dark);
-        adjustedTemperatureColorsDark.append(50, adj_color_blue_dark);
-        adjustedTemperatureColorsDark.append(60, adj_color_green_dark);
-        adjustedTemperatureColorsDark.append(70, adj_color_yellow_dark);
-        adjustedTemperatureColorsDark.append(80, adj_color_orange_dark);
-        adjustedTemperatureColorsDark.append(90, adj_color_red_dark);
-        adjustedTemperatureColorsDark.append(100, adj_color_pink_dark);
-        adjustedTemperatureColorsDark.append(110, adj_color_purple_light_dark);
-
-        temperatureColors = new SparseIntArray(10);
-        temperatureColors.append(20, color_pink);
-        temperatureColors.append(30, color_purple_light);
-        temperatureColors.append(40, color_blue_light);
-        temperatureColors.append(50, color_blue);
-        temperatureColors.append(60, color_green);
-        temperatureColors.append(70, color_yellow);
-        temperatureColors.append(80, color_orange);
-        temperatureColors.append(90, color_red);
-        temperatureColors.append(100, color_pink);
-        temperatureColors.append(110, color_purple_light);
-
-        COLOR_RAIN = adj_color_blue_light;
-        COLOR_MIX = adj_color_pink;
         COLOR_SNOW = ContextCompat.getColor(context, R.color.color_grey_99);
 
         COLOR_TEXT_BLACK = ContextCompat.getColor(context, R.color.color_black);
         COLOR_TEXT_WHITE = ContextCompat.getColor(context, R.color.color_white);
+
+        setNightMode(context);
     }
 
     public static ColorHelper getInstance(Context context) {
@@ -136,7 +82,7 @@ public class ColorHelper {
     }
 
     @ColorInt
-    private int getAdjustedColor(Context context, @ColorInt int color, boolean isDarkBackground) {
+    private static int getAdjustedColor(Context context, @ColorInt int color, boolean isDarkBackground) {
         double contrastRatio = ColorUtils.getContrastRatio(
                 color,
                 ContextCompat.getColor(context, R.color.card_background));
@@ -165,6 +111,13 @@ public class ColorHelper {
         }
 
         ColorUtils.setNightMode(context, mode);
+
+        //The adjusted colours depend on the card background, so they are rebuilt when night mode changes
+        boolean isNightModeActive = ColorUtils.isNightModeActive(context);
+
+        if (temperaturePalette == null || temperaturePalette.isNightModeActive != isNightModeActive) {
+            temperaturePalette = new TemperaturePalette(context, isNightModeActive);
+        }
     }
 
     //Temperature is Fahrenheit
@@ -172,41 +125,25 @@ public class ColorHelper {
     public int getColorFromTemperature(double temperature,
                                        boolean adjusted,
                                        boolean isDarkModeActive) {
-        final int minTemp = temperatureColors.keyAt(0);
-        final int maxTemp = temperatureColors.keyAt(temperatureColors.size() - 1);
+        final TemperaturePalette palette = temperaturePalette;
+        final int[] colors = adjusted ?
+                isDarkModeActive ? palette.adjustedColorsDark : palette.adjustedColors :
+                palette.colors;
 
-        temperature = temperature < maxTemp ? temperature > minTemp ? temperature : minTemp : maxTemp;
+        final int i = (int) Math.round((temperature - MIN_TEMPERATURE) * STEPS_PER_DEGREE);
 
-        final int low = (int) (temperature / 10) * 10;
-        final int high = low == maxTemp ? maxTemp : low + 10;
-        final int lowColor = getColorFromTemperatureArrays(low, adjusted, isDarkModeActive);
-        final int highColor = getColorFromTemperatureArrays(high, adjusted, isDarkModeActive);
-
-        return ColorUtils.blendColors(lowColor, highColor, (temperature % 10) * 10);
-    }
-
-    @ColorInt
-    private int getColorFromTemperatureArrays(int temperature, boolean adjusted, boolean isDarkModeActive) {
-        if (adjusted) {
-            if (isDarkModeActive) {
-                return adjustedTemperatureColorsDark.get(temperature);
-            } else {
-                return adjustedTemperatureColors.get(temperature);
-            }
-        } else {
-            return temperatureColors.get(temperature);
-        }
+        return colors[i < 0 ? 0 : Math.min(i, colors.length - 1)];
     }
 
     @ColorInt
     public int getPrecipColor(PrecipType type) {
         switch (type) {
             case MIX:
-                return COLOR_MIX;
+                return temperaturePalette.colorMix;
             case SNOW:
                 return COLOR_SNOW;
             default:
-                return COLOR_RAIN;
+                return temperaturePalette.colorRain;
         }
     }
 
@@ -224,4 +161,52 @@ public class ColorHelper {
 
         return textColors;
     }
+
+    //Temperature colours blended in advance at every step between MIN_TEMPERATURE and MAX_TEMPERATURE,
+    //so a lookup is a single array index
+    private static class TemperaturePalette {
+        final boolean isNightModeActive;
+        final int[] colors;
+        final int[] adjustedColors;
+        final int[] adjustedColorsDark;
+        @ColorInt
+        final int colorRain;
+        @ColorInt
+        final int colorMix;
+
+        TemperaturePalette(Context context, boolean isNightModeActive) {
+            this.isNightModeActive = isNightModeActive;
+
+            final int[] anchorColors = new int[TEMPERATURE_COLORS.length];
+            final int[] adjustedAnchorColors = new int[TEMPERATURE_COLORS.length];
+            final int[] adjustedAnchorColorsDark = new int[TEMPERATURE_COLORS.length];
+
+            for (int i = 0; i < TEMPERATURE_COLORS.length; i++) {
+                anchorColors[i] = ContextCompat.getColor(context, TEMPERATURE_COLORS[i]);
+                adjustedAnchorColors[i] = getAdjustedColor(context, anchorColors[i], false);
+                adjustedAnchorColorsDark[i] = getAdjustedColor(context, anchorColors[i], true);
+            }
+
+            colors = getLookupTable(anchorColors);
+            adjustedColors = getLookupTable(adjustedAnchorColors);
+            adjustedColorsDark = getLookupTable(adjustedAnchorColorsDark);
+
+            colorRain = getAdjustedColor(context, ContextCompat.getColor(context, R.color.color_blue_light), false);
+            colorMix = getAdjustedColor(context, ContextCompat.getColor(context, R.color.color_pink), false);
+        }
+
+        private static int[] getLookupTable(int[] anchorColors) {
+            final int stepsPerColor = DEGREES_PER_COLOR * STEPS_PER_DEGREE;
+            final int[] lookupTable = new int[(MAX_TEMPERATURE - MIN_TEMPERATURE) * STEPS_PER_DEGREE + 1];
+
+            for (int i = 0; i < lookupTable.length; i++) {
+                int low = i / stepsPerColor;
+                int high = Math.min(low + 1, anchorColors.length - 1);
+
+                lookupTable[i] = ColorUtils.blendColors(anchorColors[low], anchorColors[high], (i % stepsPerColor) * 100. / stepsPerColor);
+            }
+
+            return lookupTable;
+        }
+    }
 }
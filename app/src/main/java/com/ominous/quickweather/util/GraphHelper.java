@@ -34,105 +34,176 @@ import androidx.annotation.NonNull;
 import com.ominous.quickweather.R;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 public class GraphHelper {
     private final float POINT_SIZE;
-    private final Canvas canvas;
     private final Bitmap bitmap;
+    private Canvas canvas;
+    private final Path path = new Path();
+    private float[] buffer = new float[256];
 
     public GraphHelper(Resources resources, int width, int height) {
+        this(resources, BitmapPool.getInstance().acquire(width, height, Bitmap.Config.ARGB_8888));
+    }
+
+    //Draws onto an existing, already cleared bitmap
+    public GraphHelper(Resources resources, Bitmap bitmap) {
         //TODO: Dynamic based on screen size
         POINT_SIZE = resources.getDimensionPixelSize(R.dimen.graph_point_size);
 
-        bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        this.bitmap = bitmap;
         canvas = new Canvas(bitmap);
     }
 
+    //Draws onto the canvas passed to setCanvas, e.g. the hardware canvas of View.onDraw
+    public GraphHelper(Resources resources) {
+        POINT_SIZE = resources.getDimensionPixelSize(R.dimen.graph_point_size);
+
+        bitmap = null;
+    }
+
+    public void setCanvas(@NonNull Canvas canvas) {
+        this.canvas = canvas;
+    }
+
+    //Points are drawn as round caps, one drawPoints call per run of the same colour
     public void plotPointsOnCanvas(@NonNull RectF region,
                                    @NonNull Paint paint,
                                    @NonNull GraphBounds graphBounds,
-                                   @NonNull ArrayList<? extends IGraphPoint> points) {
+                                   @NonNull GraphSeries series) {
         RectF graphRegion = getGraphRect(region);
 
-        for (IGraphPoint point : points) {
-            float x = getXCoord(graphBounds, graphRegion, point.getX());
-            float y = getYCoord(graphBounds, graphRegion, point.getY());
+        Paint.Style style = paint.getStyle();
+        Paint.Cap cap = paint.getStrokeCap();
+        float strokeWidth = paint.getStrokeWidth();
+
+        int count = 0;
+        int runColor = 0;
+
+        for (int i = 0; i < series.size; i++) {
+            int color = series.color[i];
+
+            if (count > 0 && color != runColor) {
+                drawPoints(paint, runColor, count);
+                count = 0;
+            }
 
-            canvas.drawArc(x - POINT_SIZE / 2, y - POINT_SIZE / 2, x + POINT_SIZE / 2, y + POINT_SIZE / 2, 0, 360, true, point.getPaint(paint));
+            ensureBufferSize(count + 2);
+
+            buffer[count++] = getXCoord(graphBounds, graphRegion, series.x[i]);
+            buffer[count++] = getYCoord(graphBounds, graphRegion, series.y[i]);
+            runColor = color;
+        }
+
+        if (count > 0) {
+            drawPoints(paint, runColor, count);
         }
+
+        paint.setStyle(style);
+        paint.setStrokeCap(cap);
+        paint.setStrokeWidth(strokeWidth);
     }
 
+    //Segments are batched into one drawLines call per run of the same colour
     public void plotLinesOnCanvas(@NonNull RectF region,
                                   @NonNull Paint paint,
                                   @NonNull GraphBounds graphBounds,
-                                  @NonNull ArrayList<? extends IGraphPoint> points) {
+                                  @NonNull GraphSeries series) {
         RectF graphRegion = getGraphRect(region);
 
-        float prevX = -1;
-        float prevY = -1;
+        int count = 0;
+        int runColor = 0;
 
-        for (IGraphPoint point : points) {
-            float x = getXCoord(graphBounds, graphRegion, point.getX());
-            float y = getYCoord(graphBounds, graphRegion, point.getY());
+        for (int i = 1; i < series.size; i++) {
+            int color = series.color[i];
 
-            if (prevX != -1 || prevY != -1) {
-                canvas.drawLine(prevX, prevY, x, y, point.getPaint(paint));
+            if (count > 0 && color != runColor) {
+                paint.setColor(runColor);
+                canvas.drawLines(buffer, 0, count, paint);
+                count = 0;
             }
 
-            prevX = x;
-            prevY = y;
+            ensureBufferSize(count + 4);
+
+            buffer[count++] = getXCoord(graphBounds, graphRegion, series.x[i - 1]);
+            buffer[count++] = getYCoord(graphBounds, graphRegion, series.y[i - 1]);
+            buffer[count++] = getXCoord(graphBounds, graphRegion, series.x[i]);
+            buffer[count++] = getYCoord(graphBounds, graphRegion, series.y[i]);
+            runColor = color;
+        }
+
+        if (count > 0) {
+            paint.setColor(runColor);
+            canvas.drawLines(buffer, 0, count, paint);
         }
     }
 
+    //Consecutive segments of the same colour form a single polygon, drawn with one drawPath call
     public void plotAreaOnCanvas(@NonNull RectF region,
                                  @NonNull Paint paint,
                                  @NonNull GraphBounds graphBounds,
-                                 @NonNull ArrayList<? extends IGraphPoint> points) {
+                                 @NonNull GraphSeries series) {
         RectF graphRegion = getGraphRect(region);
 
         float y0 = getYCoord(graphBounds, graphRegion, 0);
-        float prevX = -1;
-        float prevY = -1;
-
-        for (IGraphPoint point : points) {
-            float x = getXCoord(graphBounds, graphRegion, point.getX());
-            float y = getYCoord(graphBounds, graphRegion, point.getY());
-
-            if (prevX != -1 || prevY != -1) {
-                Path path = new Path();
-                path.moveTo(prevX, prevY);
-                path.lineTo(x, y);
-                path.lineTo(x, y0);
-                path.lineTo(prevX, y0);
-                path.close();
-                canvas.drawPath(path, point.getPaint(paint));
+        float runStartX = 0;
+        int runColor = 0;
+        boolean isRunStarted = false;
+
+        path.reset();
+
+        for (int i = 1; i < series.size; i++) {
+            float prevX = getXCoord(graphBounds, graphRegion, series.x[i - 1]);
+            int color = series.color[i];
+
+            if (isRunStarted && color != runColor) {
+                closeArea(paint, runColor, runStartX, prevX, y0);
+                isRunStarted = false;
+            }
+
+            if (!isRunStarted) {
+                path.moveTo(prevX, y0);
+                path.lineTo(prevX, getYCoord(graphBounds, graphRegion, series.y[i - 1]));
+                runStartX = prevX;
+                runColor = color;
+                isRunStarted = true;
             }
 
-            prevX = x;
-            prevY = y;
+            path.lineTo(getXCoord(graphBounds, graphRegion, series.x[i]),
+                    getYCoord(graphBounds, graphRegion, series.y[i]));
+        }
+
+        if (isRunStarted) {
+            closeArea(paint, runColor, runStartX, getXCoord(graphBounds, graphRegion, series.x[series.size - 1]), y0);
         }
     }
 
     public void drawXAxisOnCanvas(@NonNull RectF region,
                                   @NonNull Paint paint,
                                   @NonNull GraphBounds graphBounds,
-                                  @NonNull ArrayList<? extends IGraphLabel> points) {
+                                  @NonNull float[] x,
+                                  @NonNull String[] labels,
+                                  int count) {
         RectF graphRegion = getGraphRect(region);
         graphRegion.top += POINT_SIZE;
 
-        float prevX = -120;
+        //Spacing is anchored to the first label, so the same labels are chosen wherever the graph is scrolled
+        float prevX = count > 0 ? getXCoord(graphBounds, graphRegion, x[0]) - 120 : 0;
 
-        for (IGraphLabel point : points) {
-            float x = getXCoord(graphBounds, graphRegion, point.getX());
+        for (int i = 0; i < count; i++) {
+            float xCoord = getXCoord(graphBounds, graphRegion, x[i]);
 
-            if (x - prevX >= 120) {
-                canvas.drawText(
-                        point.getLabel(),
-                        x,
-                        graphRegion.top,
-                        paint);
+            if (xCoord - prevX >= 120) {
+                if (xCoord > region.left - 120 && xCoord < region.right + 120) {
+                    canvas.drawText(
+                            labels[i],
+                            xCoord,
+                            graphRegion.top,
+                            paint);
+                }
 
-                prevX = x;
+                prevX = xCoord;
             }
         }
     }
@@ -188,6 +259,32 @@ public class GraphHelper {
         return bitmap;
     }
 
+    private void drawPoints(Paint paint, int color, int count) {
+        paint.setColor(color);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        paint.setStrokeWidth(POINT_SIZE);
+
+        canvas.drawPoints(buffer, 0, count, paint);
+    }
+
+    private void closeArea(Paint paint, int color, float startX, float endX, float y0) {
+        path.lineTo(endX, y0);
+        path.lineTo(startX, y0);
+        path.close();
+
+        paint.setColor(color);
+        canvas.drawPath(path, paint);
+
+        path.reset();
+    }
+
+    private void ensureBufferSize(int size) {
+        if (buffer.length < size) {
+            buffer = Arrays.copyOf(buffer, Math.max(size, buffer.length * 2));
+        }
+    }
+
     public float getXCoord(GraphBounds graphBounds, RectF graphRect, float x) {
         return graphRect.left + graphRect.width() * (x - graphBounds.MIN_X_VALUE) / (graphBounds.MAX_X_VALUE - graphBounds.MIN_X_VALUE);
     }
@@ -196,7 +293,7 @@ public class GraphHelper {
         return graphRect.top + graphRect.height() * (1 - (y - graphBounds.MIN_Y_VALUE) / (graphBounds.MAX_Y_VALUE - graphBounds.MIN_Y_VALUE));
     }
 
-    private RectF getGraphRect(RectF region) {
+    public RectF getGraphRect(RectF region) {
         RectF graphRect = new RectF(region);
         graphRect.left += POINT_SIZE;
         graphRect.top += POINT_SIZE;
@@ -206,12 +303,62 @@ public class GraphHelper {
         return graphRect;
     }
 
-    public interface IGraphPoint {
-        float getX();
+    //Catmull-Rom spline through the first size points of x and y, written into curveX and curveY,
+    //which must hold at least (size - 1) * segments values. Returns the number of curve points
+    //Based on https://stackoverflow.com/a/15528789
+    public static int getCurve(float[] x, float[] y, int size, int segments, float[] curveX, float[] curveY) {
+        final float tension = 0.5f;
+        int count = 0;
+
+        for (int i = 0; i < size - 1; i++) {
+            int prev = Math.max(i - 1, 0);
+            int next = i + 1;
+            int nextNext = Math.min(i + 2, size - 1);
+
+            for (int t = 0; t < segments; t++) {
+                float st = t / (float) segments;
+                float st2 = st * st;
+                float st3 = st2 * st;
+                float c1 = 2 * st3 - 3 * st2 + 1;
+                float c2 = -2 * st3 + 3 * st2;
+                float c3 = st3 - 2 * st2 + st;
+                float c4 = st3 - st2;
+
+                curveX[count] = c1 * x[i] +
+                        c2 * x[next] +
+                        c3 * (x[next] - x[prev]) * tension +
+                        c4 * (x[nextNext] - x[i]) * tension;
+                curveY[count] = c1 * y[i] +
+                        c2 * y[next] +
+                        c3 * (y[next] - y[prev]) * tension +
+                        c4 * (y[nextNext] - y[i]) * tension;
+                count++;
+            }
+        }
 
-        float getY();
+        return count;
+    }
 
-        Paint getPaint(Paint paint);
+    //Columnar series, so a graph does not need an object per point
+    public static class GraphSeries {
+        public float[] x;
+        public float[] y;
+        public int[] color;
+        public int size = 0;
+
+        public GraphSeries(int capacity) {
+            x = new float[capacity];
+            y = new float[capacity];
+            color = new int[capacity];
+        }
+
+        public void ensureCapacity(int capacity) {
+            if (x.length < capacity) {
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+                color = Arrays.copyOf(color, capacity);
+            }
+        }
     }
 
     public interface IGraphLabel {
@@ -0,0 +1,137 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.util;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+//Keeps the generated map styles in memory and in the cache directory, so the theme asset is only
+//parsed and localized once per key
+public class MapStyleCache {
+    private final static String CACHE_DIRECTORY = "map_style";
+    private final static int MAX_FILES = 8;
+
+    private static MapStyleCache instance;
+
+    private final File cacheDirectory;
+    private final Map<String, String> styles = new HashMap<>();
+
+    private MapStyleCache(Context context) {
+        cacheDirectory = new File(context.getCacheDir(), CACHE_DIRECTORY);
+    }
+
+    public static synchronized MapStyleCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new MapStyleCache(context.getApplicationContext());
+        }
+
+        return instance;
+    }
+
+    public synchronized String get(String key) {
+        String style = styles.get(key);
+
+        if (style == null) {
+            File styleFile = getFile(key);
+
+            if (styleFile.exists()) {
+                try (InputStream inputStream = new FileInputStream(styleFile)) {
+                    byte[] buffer = new byte[(int) styleFile.length()];
+                    int offset = 0;
+
+                    for (int read; offset < buffer.length &&
+                            (read = inputStream.read(buffer, offset, buffer.length - offset)) != -1; ) {
+                        offset += read;
+                    }
+
+                    style = new String(buffer, 0, offset, StandardCharsets.UTF_8);
+                    styles.put(key, style);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        return style;
+    }
+
+    public synchronized void put(String key, String style) {
+        styles.put(key, style);
+
+        if (!cacheDirectory.exists() && !cacheDirectory.mkdirs()) {
+            return;
+        }
+
+        File styleFile = getFile(key);
+        File tempFile = new File(cacheDirectory, styleFile.getName() + ".tmp");
+
+        //Written to a temporary file first, so a partially written style is never read back
+        try (OutputStream outputStream = new FileOutputStream(tempFile)) {
+            outputStream.write(style.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        if (tempFile.renameTo(styleFile)) {
+            trim();
+        }
+    }
+
+    public synchronized void clear() {
+        styles.clear();
+
+        File[] files = cacheDirectory.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+    }
+
+    private void trim() {
+        File[] files = cacheDirectory.listFiles();
+
+        if (files != null && files.length > MAX_FILES) {
+            Arrays.sort(files, (a, b) -> Long.compare(b.lastModified(), a.lastModified()));
+
+            for (int i = MAX_FILES; i < files.length; i++) {
+                //noinspection ResultOfMethodCallIgnored
+                files[i].delete();
+            }
+        }
+    }
+
+    private File getFile(String key) {
+        return new File(cacheDirectory, key.replaceAll("[^0-9A-Za-z_.-]", "_") + ".json");
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.view;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.HapticFeedbackConstants;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+import android.view.ViewParent;
+import android.widget.OverScroller;
+
+import androidx.annotation.NonNull;
+
+//Draws only the visible window of a graph in onDraw, which is recorded into the view's display list
+//when hardware accelerated. Supports panning, flinging, pinch-zoom and scrubbing with a long press
+public class LiveGraphView extends View {
+    private final GestureDetector gestureDetector;
+    private final ScaleGestureDetector scaleGestureDetector;
+    private final OverScroller scroller;
+    private Renderer renderer;
+    private float graphLeft = 0;
+    private float graphRight = 0;
+    private float maxX = 0;
+    private float minSpan = 0;
+    private float visibleStart = 0;
+    private float visibleSpan = 0;
+    private boolean isScrubbing = false;
+    private float crosshairX = 0;
+
+    public LiveGraphView(Context context) {
+        this(context, null, 0);
+    }
+
+    public LiveGraphView(Context context, AttributeSet attrs) {
+        this(context, attrs, 0);
+    }
+
+    public LiveGraphView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+
+        scroller = new OverScroller(context);
+
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(@NonNull MotionEvent e) {
+                scroller.forceFinished(true);
+
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, @NonNull MotionEvent e2, float distanceX, float distanceY) {
+                if (isScrubbing || scaleGestureDetector.isInProgress()) {
+                    return true;
+                }
+
+                //Vertical drags are left to the parent, so the card list still scrolls
+                if (Math.abs(distanceX) > Math.abs(distanceY)) {
+                    disallowParentIntercept(true);
+                }
+
+                setVisibleStart(visibleStart + distanceX * visibleSpan / getGraphWidth());
+
+                return true;
+            }
+
+            @Override
+            public boolean onFling(MotionEvent e1, @NonNull MotionEvent e2, float velocityX, float velocityY) {
+                if (isScrubbing || scaleGestureDetector.isInProgress()) {
+                    return true;
+                }
+
+                float pixelsPerUnit = getGraphWidth() / visibleSpan;
+
+                scroller.fling(
+                        (int) (visibleStart * pixelsPerUnit), 0,
+                        (int) -velocityX, 0,
+                        0, (int) ((maxX - visibleSpan) * pixelsPerUnit),
+                        0, 0);
+
+                postInvalidateOnAnimation();
+
+                return true;
+            }
+
+            @Override
+            public void onLongPress(@NonNull MotionEvent e) {
+                if (scaleGestureDetector.isInProgress()) {
+                    return;
+                }
+
+                isScrubbing = true;
+                crosshairX = getValue(e.getX());
+
+                disallowParentIntercept(true);
+                performHapticFeedback(HapticFeedbackConstants.LONG_PRESS);
+                invalidate();
+            }
+        });
+
+        scaleGestureDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScaleBegin(@NonNull ScaleGestureDetector detector) {
+                scroller.forceFinished(true);
+                disallowParentIntercept(true);
+
+                return !isScrubbing;
+            }
+
+            @Override
+            public boolean onScale(@NonNull ScaleGestureDetector detector) {
+                //The value under the focus point stays in place while zooming
+                float focus = getValue(detector.getFocusX());
+                float focusFraction = (detector.getFocusX() - graphLeft) / getGraphWidth();
+
+                visibleSpan = Math.min(Math.max(visibleSpan / detector.getScaleFactor(), minSpan), maxX);
+                setVisibleStart(focus - focusFraction * visibleSpan);
+
+                return true;
+            }
+        });
+    }
+
+    //Horizontal space reserved on either side of the plotted values, in pixels
+    public void setGraphInsets(float left, float right) {
+        graphLeft = left;
+        graphRight = right;
+    }
+
+    //Values run from 0 to maxX. The window starts at 0 and spans initialSpan, and can be zoomed in down to minSpan
+    public void setRenderer(Renderer renderer, float maxX, float initialSpan, float minSpan) {
+        scroller.forceFinished(true);
+
+        this.renderer = renderer;
+        this.maxX = maxX;
+        this.minSpan = Math.min(minSpan, maxX);
+
+        visibleSpan = Math.min(Math.max(initialSpan, this.minSpan), maxX);
+        visibleStart = 0;
+        isScrubbing = false;
+
+        invalidate();
+    }
+
+    public void clear() {
+        setRenderer(null, 0, 0, 0);
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+
+        if (renderer != null && visibleSpan > 0) {
+            renderer.onDrawGraph(canvas, getWidth(), getHeight(), visibleStart, visibleStart + visibleSpan);
+
+            if (isScrubbing) {
+                renderer.onDrawCrosshair(canvas, getWidth(), getHeight(), visibleStart, visibleStart + visibleSpan, crosshairX);
+            }
+        }
+    }
+
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            setVisibleStart(scroller.getCurrX() * visibleSpan / getGraphWidth());
+        }
+    }
+
+    @SuppressLint("ClickableViewAccessibility")
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (renderer == null || visibleSpan <= 0) {
+            return super.onTouchEvent(event);
+        }
+
+        scaleGestureDetector.onTouchEvent(event);
+        gestureDetector.onTouchEvent(event);
+
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_MOVE:
+                if (isScrubbing) {
+                    crosshairX = getValue(event.getX());
+                    invalidate();
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                if (isScrubbing) {
+                    isScrubbing = false;
+                    invalidate();
+                }
+
+                disallowParentIntercept(false);
+                break;
+        }
+
+        return true;
+    }
+
+    private void setVisibleStart(float start) {
+        visibleStart = Math.min(Math.max(start, 0), maxX - visibleSpan);
+
+        postInvalidateOnAnimation();
+    }
+
+    private float getValue(float pixelX) {
+        return Math.min(Math.max(visibleStart + (pixelX - graphLeft) / getGraphWidth() * visibleSpan, 0), maxX);
+    }
+
+    private float getGraphWidth() {
+        return Math.max(getWidth() - graphLeft - graphRight, 1);
+    }
+
+    private void disallowParentIntercept(boolean disallow) {
+        ViewParent parent = getParent();
+
+        if (parent != null) {
+            parent.requestDisallowInterceptTouchEvent(disallow);
+        }
+    }
+
+    public interface Renderer {
+        //start and end are the values at the left and right edges of the graph
+        void onDrawGraph(@NonNull Canvas canvas, int width, int height, float start, float end);
+
+        void onDrawCrosshair(@NonNull Canvas canvas, int width, int height, float start, float end, float x);
+    }
+}
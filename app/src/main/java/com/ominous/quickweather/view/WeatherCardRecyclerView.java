@@ -44,18 +44,22 @@ import com.ominous.quickweather.card.SunMoonCardView;
 import com.ominous.quickweather.data.CurrentWeather;
 import com.ominous.quickweather.data.WeatherCardType;
 import com.ominous.quickweather.data.WeatherModel;
+import com.ominous.quickweather.pref.WeatherPreferences;
 import com.ominous.tylerutils.util.LocaleUtils;
 
 import java.util.ArrayList;
+import java.util.Objects;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.StaggeredGridLayoutManager;
 
 public class WeatherCardRecyclerView extends RecyclerView {
     private final WeatherCardAdapter weatherCardAdapter;
     private final StaggeredGridLayoutManager staggeredGridLayoutManager;
+    private final WeatherCardViewPool weatherCardViewPool = new WeatherCardViewPool();
     private boolean isLandscape;
 
     public WeatherCardRecyclerView(@NonNull Context context) {
@@ -85,6 +89,7 @@ public class WeatherCardRecyclerView extends RecyclerView {
         weatherCardAdapter = new WeatherCardAdapter(WeatherRecyclerViewType.values()[recyclerViewType]);
 
         this.setAdapter(weatherCardAdapter);
+        this.setRecycledViewPool(weatherCardViewPool);
 
         LayoutAnimationController animationController = new LayoutAnimationController(AnimationUtils.loadAnimation(context, R.anim.item_fade));
         animationController.setDelay(0.3f);
@@ -106,8 +111,18 @@ public class WeatherCardRecyclerView extends RecyclerView {
         staggeredGridLayoutManager.setSpanCount(isLandscape ? 2 : 1);
     }
 
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        weatherCardViewPool.cancelPreinflate();
+    }
+
     public void setCardSections(WeatherCardType[] cardTypeList) {
         weatherCardAdapter.setCardSectionTypeList(cardTypeList);
+
+        //The card sections are usually known before the weather, so the cards are created in the meantime
+        weatherCardViewPool.preinflate(this, weatherCardAdapter, cardTypeList);
     }
 
     public void update(WeatherModel weatherModel) {
@@ -139,6 +154,8 @@ public class WeatherCardRecyclerView extends RecyclerView {
         private WeatherMapView weatherMapView;
         private WeatherCardType[] weatherCardViewTypes = new WeatherCardType[]{};
         private WeatherCardType[] cardSectionTypeList = new WeatherCardType[]{};
+        private int[] weatherCardContentHashes = new int[]{};
+        private int bindStateHash = 0;
 
         private final WeatherRecyclerViewType weatherRecyclerViewType;
 
@@ -150,6 +167,7 @@ public class WeatherCardRecyclerView extends RecyclerView {
         protected void setCardSectionTypeList(WeatherCardType[] cardSectionTypeList) {
             this.cardSectionTypeList = cardSectionTypeList;
             weatherCardViewTypes = getWeatherCardViewTypes();
+            weatherCardContentHashes = getWeatherCardContentHashes(weatherCardViewTypes);
 
             notifyDataSetChanged();
         }
@@ -160,9 +178,18 @@ public class WeatherCardRecyclerView extends RecyclerView {
 
         void update(WeatherModel weatherModel) {
             WeatherCardType[] prevCardViewTypes = weatherCardViewTypes;
+            int[] prevCardContentHashes = weatherCardContentHashes;
+            int prevBindStateHash = bindStateHash;
 
             this.weatherModel = weatherModel;
             weatherCardViewTypes = getWeatherCardViewTypes();
+            weatherCardContentHashes = getWeatherCardContentHashes(weatherCardViewTypes);
+            bindStateHash = getBindStateHash();
+
+            if (bindStateHash == prevBindStateHash) {
+                notifyWeatherCardsChanged(prevCardViewTypes, prevCardContentHashes);
+                return;
+            }
 
             int pos = 0;
             for (WeatherCardType sectionType : cardSectionTypeList) {
@@ -177,6 +204,37 @@ public class WeatherCardRecyclerView extends RecyclerView {
             }
         }
 
+        //Only the cards whose own slice of the weather changed are rebound
+        private void notifyWeatherCardsChanged(WeatherCardType[] prevCardViewTypes, int[] prevCardContentHashes) {
+            final WeatherCardType[] newCardViewTypes = weatherCardViewTypes;
+            final int[] newCardContentHashes = weatherCardContentHashes;
+            final int[] prevSectionPositions = getSectionPositions(prevCardViewTypes);
+            final int[] newSectionPositions = getSectionPositions(newCardViewTypes);
+
+            DiffUtil.calculateDiff(new DiffUtil.Callback() {
+                @Override
+                public int getOldListSize() {
+                    return prevCardViewTypes.length;
+                }
+
+                @Override
+                public int getNewListSize() {
+                    return newCardViewTypes.length;
+                }
+
+                @Override
+                public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                    return prevCardViewTypes[oldItemPosition] == newCardViewTypes[newItemPosition] &&
+                            prevSectionPositions[oldItemPosition] == newSectionPositions[newItemPosition];
+                }
+
+                @Override
+                public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                    return prevCardContentHashes[oldItemPosition] == newCardContentHashes[newItemPosition];
+                }
+            }, false).dispatchUpdatesTo(this);
+        }
+
         private <T> int countMatchesInList(T[] list, T val) {
             int count = 0;
 
@@ -273,6 +331,73 @@ public class WeatherCardRecyclerView extends RecyclerView {
             return 0;
         }
 
+        //Cards of the same type are always next to each other
+        private int[] getSectionPositions(WeatherCardType[] cardViewTypes) {
+            int[] sectionPositions = new int[cardViewTypes.length];
+
+            for (int i = 1; i < cardViewTypes.length; i++) {
+                sectionPositions[i] = cardViewTypes[i - 1] == cardViewTypes[i] ? sectionPositions[i - 1] + 1 : 0;
+            }
+
+            return sectionPositions;
+        }
+
+        private int[] getWeatherCardContentHashes(WeatherCardType[] cardViewTypes) {
+            int[] contentHashes = new int[cardViewTypes.length];
+            int[] sectionPositions = getSectionPositions(cardViewTypes);
+
+            for (int i = 0; i < cardViewTypes.length; i++) {
+                contentHashes[i] = getWeatherCardContentHash(cardViewTypes[i], sectionPositions[i]);
+            }
+
+            return contentHashes;
+        }
+
+        //Hash of the part of the weather each card is bound from
+        private int getWeatherCardContentHash(WeatherCardType cardViewType, int position) {
+            CurrentWeather currentWeather = weatherModel.currentWeather;
+
+            switch (cardViewType) {
+                case CURRENT_MAIN:
+                    return currentWeather.current.getContentHash();
+                case ALERT:
+                    return position < currentWeather.alerts.length ? currentWeather.alerts[position].getContentHash() : 0;
+                case GRAPH:
+                    return weatherModel.date == null ?
+                            CurrentWeather.getContentHash(currentWeather.hourly) :
+                            Objects.hash(CurrentWeather.getContentHash(currentWeather.hourly), CurrentWeather.getContentHash(currentWeather.trihourly));
+                case RADAR:
+                    //The radar frames are refreshed along with the weather
+                    return Objects.hash(weatherModel.locationPair, currentWeather.timestamp);
+                case CURRENT_FORECAST:
+                    return currentWeather.daily[position].getContentHash();
+                case FORECAST_MAIN:
+                    return CurrentWeather.getContentHash(currentWeather.daily);
+                case FORECAST_DETAIL:
+                    return CurrentWeather.getContentHash(currentWeather.trihourly);
+                case SUNMOON:
+                    //The current time is marked on the sun and moon graphs
+                    return Objects.hash(CurrentWeather.getContentHash(currentWeather.daily), currentWeather.timestamp);
+                default:
+                    return 0;
+            }
+        }
+
+        //Anything outside of the weather that changes how the cards are shown. If it changes, every card is rebound
+        private int getBindStateHash() {
+            WeatherPreferences weatherPreferences = WeatherPreferences.getInstance(getContext());
+
+            return Objects.hash(weatherModel.date,
+                    weatherModel.currentWeather == null ? null : weatherModel.currentWeather.timezone,
+                    weatherPreferences.getTemperatureUnit(),
+                    weatherPreferences.getSpeedUnit(),
+                    weatherPreferences.getDistanceUnit(),
+                    weatherPreferences.getTheme(),
+                    weatherPreferences.getExpandedDetails(),
+                    weatherPreferences.getRadarTheme(),
+                    weatherPreferences.getRadarQuality());
+        }
+
         private WeatherCardType[] getWeatherCardViewTypes() {
             if (weatherModel != null && weatherModel.currentWeather != null) {
                 ArrayList<WeatherCardType> cardList = new ArrayList<>();
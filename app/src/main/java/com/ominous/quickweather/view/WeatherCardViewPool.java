@@ -0,0 +1,127 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.view;
+
+import android.os.Looper;
+import android.os.MessageQueue;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.ominous.quickweather.data.WeatherCardType;
+
+import java.util.ArrayDeque;
+
+//Pool of weather cards sized per card type, which can be filled ahead of the first layout.
+//Cards are created one at a time while the main thread is idle, e.g. while the weather is loading
+public class WeatherCardViewPool extends RecyclerView.RecycledViewPool {
+    private final ArrayDeque<Integer> pendingViewTypes = new ArrayDeque<>();
+    private RecyclerView.Adapter<?> adapter;
+    private RecyclerView parent;
+    private boolean isIdleHandlerAdded = false;
+
+    private final MessageQueue.IdleHandler preinflateIdleHandler = () -> {
+        Integer viewType = pendingViewTypes.poll();
+
+        //Once cards are laid out, they are created as needed instead. If the activity finished before
+        //its first layout, the RecyclerView is never attached and no cards are needed at all
+        if (viewType == null || parent.getChildCount() > 0 || !parent.isAttachedToWindow()) {
+            release();
+            return false;
+        }
+
+        if (getRecycledViewCount(viewType) < getPreinflateCount(WeatherCardType.values()[viewType])) {
+            putRecycledView(adapter.createViewHolder(parent, viewType));
+        }
+
+        if (pendingViewTypes.isEmpty()) {
+            release();
+            return false;
+        }
+
+        return true;
+    };
+
+    public WeatherCardViewPool() {
+        super();
+
+        for (WeatherCardType weatherCardType : WeatherCardType.values()) {
+            setMaxRecycledViews(weatherCardType.ordinal(), getMaxRecycledViews(weatherCardType));
+        }
+    }
+
+    public void preinflate(@NonNull RecyclerView parent, @NonNull RecyclerView.Adapter<?> adapter, WeatherCardType[] cardSectionTypes) {
+        this.parent = parent;
+        this.adapter = adapter;
+
+        pendingViewTypes.clear();
+
+        for (WeatherCardType weatherCardType : cardSectionTypes) {
+            for (int i = 0, l = getPreinflateCount(weatherCardType); i < l; i++) {
+                pendingViewTypes.add(weatherCardType.ordinal());
+            }
+        }
+
+        if (!isIdleHandlerAdded && !pendingViewTypes.isEmpty()) {
+            Looper.myQueue().addIdleHandler(preinflateIdleHandler);
+            isIdleHandlerAdded = true;
+        }
+    }
+
+    public void cancelPreinflate() {
+        if (isIdleHandlerAdded) {
+            Looper.myQueue().removeIdleHandler(preinflateIdleHandler);
+        }
+
+        release();
+    }
+
+    private void release() {
+        pendingViewTypes.clear();
+        isIdleHandlerAdded = false;
+        parent = null;
+        adapter = null;
+    }
+
+    private static int getMaxRecycledViews(WeatherCardType weatherCardType) {
+        switch (weatherCardType) {
+            case CURRENT_FORECAST:
+            case FORECAST_DETAIL:
+                return 8; //one per day, or one per three hours
+            case ALERT:
+                return 4;
+            default:
+                return 1;
+        }
+    }
+
+    //Enough of each type to fill the first screen
+    private static int getPreinflateCount(WeatherCardType weatherCardType) {
+        switch (weatherCardType) {
+            case CURRENT_FORECAST:
+            case FORECAST_DETAIL:
+                return 4;
+            case ALERT:
+                return 0; //most of the time there are none
+            default:
+                return 1;
+        }
+    }
+}
@@ -29,7 +29,6 @@ import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.os.Bundle;
-import android.os.Handler;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
 import android.util.Pair;
@@ -48,6 +47,7 @@ import com.mapbox.mapboxsdk.Mapbox;
 import com.mapbox.mapboxsdk.camera.CameraPosition;
 import com.mapbox.mapboxsdk.camera.CameraUpdateFactory;
 import com.mapbox.mapboxsdk.geometry.LatLng;
+import com.mapbox.mapboxsdk.geometry.LatLngBounds;
 import com.mapbox.mapboxsdk.maps.MapView;
 import com.mapbox.mapboxsdk.maps.MapboxMap;
 import com.mapbox.mapboxsdk.maps.Style;
@@ -56,24 +56,26 @@ import com.mapbox.mapboxsdk.module.http.HttpRequestUtil;
 import com.mapbox.mapboxsdk.plugins.annotation.Symbol;
 import com.mapbox.mapboxsdk.plugins.annotation.SymbolManager;
 import com.mapbox.mapboxsdk.plugins.annotation.SymbolOptions;
-import com.mapbox.mapboxsdk.style.layers.Layer;
 import com.mapbox.mapboxsdk.style.layers.PropertyFactory;
 import com.mapbox.mapboxsdk.style.layers.PropertyValue;
 import com.mapbox.mapboxsdk.style.layers.RasterLayer;
 import com.mapbox.mapboxsdk.style.sources.RasterSource;
 import com.mapbox.mapboxsdk.style.sources.TileSet;
+import com.ominous.quickweather.BuildConfig;
 import com.ominous.quickweather.R;
 import com.ominous.quickweather.activity.ILifecycleAwareActivity;
 import com.ominous.quickweather.activity.LifecycleListener;
+import com.ominous.quickweather.api.HttpClient;
+import com.ominous.quickweather.api.RadarTileCache;
 import com.ominous.quickweather.card.RadarCardView;
 import com.ominous.quickweather.dialog.LegendDialog;
 import com.ominous.quickweather.dialog.TextDialog;
 import com.ominous.quickweather.pref.RadarQuality;
 import com.ominous.quickweather.pref.RadarTheme;
 import com.ominous.quickweather.pref.WeatherPreferences;
+import com.ominous.quickweather.util.MapStyleCache;
 import com.ominous.quickweather.util.SnackbarHelper;
 import com.ominous.tylerutils.async.Promise;
-import com.ominous.tylerutils.http.HttpRequest;
 import com.ominous.tylerutils.util.BitmapUtils;
 import com.ominous.tylerutils.util.ColorUtils;
 import com.ominous.tylerutils.util.StringUtils;
@@ -91,6 +93,7 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.Locale;
 
@@ -99,10 +102,7 @@ import androidx.annotation.Nullable;
 import androidx.constraintlayout.widget.ConstraintLayout;
 import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.RecyclerView;
-import okhttp3.Interceptor;
-import okhttp3.OkHttpClient;
 import okhttp3.Request;
-import okhttp3.Response;
 
 public class WeatherMapView extends ConstraintLayout implements View.OnClickListener {
     private final static int ANIMATION_DURATION = 500;
@@ -140,6 +140,8 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
     private int currentRainViewerFrame = 0;
 
     private final ArrayList<Pair<Long, String>> rainViewerTimestamps = new ArrayList<>();
+    private final ArrayList<RasterLayer> rainViewerLayers = new ArrayList<>(); //same order as rainViewerTimestamps
+    private int visibleRainViewerFrame = -1;
     private boolean isPlaying = false;
     private boolean isFullscreen = false;
 
@@ -152,6 +154,8 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
     private SymbolManager symbolManager;
     private Symbol radarSymbol;
 
+    private RadarTileCache.Prefetch radarPrefetch;
+
     public WeatherMapView(@NonNull Context context) {
         this(context, null, 0, 0);
     }
@@ -373,33 +377,43 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
     private void loadStyle() {
         Promise.create(b -> {
             final boolean isNightModeActive = ColorUtils.isNightModeActive(getContext());
-            String styleJson;
+            final double textScaling = getTextScaling();
+            final String language = Locale.getDefault().getLanguage();
 
-            try (InputStream themeStream = getContext().getAssets().open(
-                    isNightModeActive ? "dark_theme.json" : "light_theme.json")) {
-                BufferedReader r = new BufferedReader(new InputStreamReader(themeStream));
+            //The localized style only depends on these, so it is generated once and reused
+            String styleKey = String.format(Locale.US, "%1$d_%2$s_%3$s_%4$.3f",
+                    BuildConfig.VERSION_CODE,
+                    isNightModeActive ? "dark" : "light",
+                    language,
+                    textScaling);
 
-                StringBuilder themeBuilder = new StringBuilder(themeStream.available());
+            MapStyleCache mapStyleCache = MapStyleCache.getInstance(getContext());
+            String styleJson = mapStyleCache.get(styleKey);
 
-                for (String line; (line = r.readLine()) != null; ) {
-                    themeBuilder.append(line).append('\n');
-                }
+            if (styleJson == null) {
+                try (InputStream themeStream = getContext().getAssets().open(
+                        isNightModeActive ? "dark_theme.json" : "light_theme.json")) {
+                    BufferedReader r = new BufferedReader(new InputStreamReader(themeStream));
 
-                styleJson = themeBuilder.toString();
-            } catch (IOException e) {
-                logError(getContext().getString(R.string.error_radar_map), e);
+                    StringBuilder themeBuilder = new StringBuilder(themeStream.available());
 
-                return;
-            }
+                    for (String line; (line = r.readLine()) != null; ) {
+                        themeBuilder.append(line).append('\n');
+                    }
 
-            try {
-                final Style.Builder styleBuilder = new Style.Builder().fromJson(
-                        withStyledLocalizedText(styleJson, isNightModeActive));
+                    styleJson = withStyledLocalizedText(themeBuilder.toString(), isNightModeActive, language, textScaling);
+                } catch (IOException | JSONException e) {
+                    logError(getContext().getString(R.string.error_radar_map), e);
 
-                post(() -> mapView.getMapAsync(mapboxMap -> mapboxMap.setStyle(styleBuilder)));
-            } catch (JSONException e) {
-                logError(getContext().getString(R.string.error_radar_map), e);
+                    return;
+                }
+
+                mapStyleCache.put(styleKey, styleJson);
             }
+
+            final Style.Builder styleBuilder = new Style.Builder().fromJson(styleJson);
+
+            post(() -> mapView.getMapAsync(mapboxMap -> mapboxMap.setStyle(styleBuilder)));
         });
     }
 
@@ -418,14 +432,14 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
 
             mapboxMap.getStyle(style -> {
                 if (currentTheme != WeatherPreferences.getInstance(getContext()).getRadarTheme()) {
-                    for (Layer l : style.getLayers()) {
-                        if (l.getId().startsWith("radar")) {
-                            style.removeLayer(l);
-                            style.removeSource(l.getId());
-                        }
+                    for (RasterLayer layer : rainViewerLayers) {
+                        style.removeLayer(layer);
+                        style.removeSource(layer.getSourceId());
                     }
 
                     rainViewerTimestamps.clear();
+                    rainViewerLayers.clear();
+                    visibleRainViewerFrame = -1;
 
                     currentTheme = WeatherPreferences.getInstance(getContext()).getRadarTheme();
                 }
@@ -456,14 +470,59 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
         isPlaying = !isPlaying;
 
         if (isPlaying) {
-            post(nextFrameRunnable);
+            //The first loop would otherwise stutter while MapLibre fetches each frame's tiles
+            prefetchRainViewerFrames(() -> post(() -> {
+                if (isPlaying) {
+                    post(nextFrameRunnable);
+                }
+            }));
         } else {
+            if (radarPrefetch != null) {
+                radarPrefetch.cancel();
+                radarPrefetch = null;
+            }
+
             removeCallbacks(nextFrameRunnable);
         }
 
         buttonPlayPause.setIcon(ContextCompat.getDrawable(getContext(), isPlaying ? R.drawable.ic_pause_white_24dp : R.drawable.ic_play_arrow_white_24dp));
     }
 
+    private void prefetchRainViewerFrames(Runnable onComplete) {
+        mapView.getMapAsync(mapboxMap -> {
+            WeatherPreferences weatherPreferences = WeatherPreferences.getInstance(getContext());
+
+            String radarResolution = weatherPreferences
+                    .getRadarQuality() == RadarQuality.HIGH ? "512" : "256";
+            String radarTheme = weatherPreferences.getRadarTheme().getValue();
+
+            ArrayList<String> urlTemplates = new ArrayList<>(rainViewerTimestamps.size());
+
+            for (Pair<Long, String> rainViewerTimestamp : rainViewerTimestamps) {
+                urlTemplates.add(RadarTileCache.getRainViewerTileUrl(
+                        rainViewerTimestamp.second,
+                        radarResolution,
+                        radarTheme));
+            }
+
+            LatLngBounds visibleBounds = mapboxMap.getProjection().getVisibleRegion().latLngBounds;
+
+            if (radarPrefetch != null) {
+                radarPrefetch.cancel();
+            }
+
+            radarPrefetch = RadarTileCache.getInstance(getContext()).prefetch(
+                    urlTemplates,
+                    visibleBounds.getLatNorth(),
+                    visibleBounds.getLatSouth(),
+                    visibleBounds.getLonWest(),
+                    visibleBounds.getLonEast(),
+                    mapboxMap.getCameraPosition().zoom,
+                    RadarTileCache.RAINVIEWER_TILE_SIZE,
+                    onComplete);
+        });
+    }
+
     private Symbol createMappickerSymbol(SymbolManager symbolManager, Style style) {
         Bitmap markerBitmap = BitmapUtils.drawableToBitmap(
                 ContextCompat.getDrawable(getContext(), R.drawable.ic_add_location_white_48dp),
@@ -517,29 +576,15 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
         if (rainViewerTimestamps.size() > 0) {
             currentRainViewerFrame = currentRainViewerFrame % rainViewerTimestamps.size();
 
-            String layerId = "radar" + rainViewerTimestamps.get(currentRainViewerFrame).first;
-
-            if (style != null) {
-                Layer shouldHideLayer = null;
-                Layer shouldShowLayer = null;
-
-                for (Layer layer : style.getLayers()) {
-                    if (layer.getId().startsWith("radar")) {
-                        if (layer.getId().equals(layerId)) {
-                            shouldShowLayer = layer;
-                        } else if (((RasterLayer) layer).getRasterOpacity().value > 0) {
-                            shouldHideLayer = layer;
-                        }
-                    }
+            if (style != null && currentRainViewerFrame < rainViewerLayers.size()) {
+                if (visibleRainViewerFrame >= 0 &&
+                        visibleRainViewerFrame < rainViewerLayers.size() &&
+                        visibleRainViewerFrame != currentRainViewerFrame) {
+                    rainViewerLayers.get(visibleRainViewerFrame).setProperties(getRasterOpacity(false));
                 }
 
-                if (shouldShowLayer != null) {
-                    shouldShowLayer.setProperties(getRasterOpacity(true));
-                }
-
-                if (shouldHideLayer != null) {
-                    shouldHideLayer.setProperties(getRasterOpacity(false));
-                }
+                rainViewerLayers.get(currentRainViewerFrame).setProperties(getRasterOpacity(true));
+                visibleRainViewerFrame = currentRainViewerFrame;
             }
 
             radarSlider.setValues((float) currentRainViewerFrame);
@@ -552,8 +597,10 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
     }
 
     private Promise<String, Void> addRainViewerLayers() {
-        return new HttpRequest("https://api.rainviewer.com/public/weather-maps.json")
-                .fetchAsync()
+        return Promise.create((a) -> HttpClient.getInstance(getContext())
+                        .fetch(new Request.Builder()
+                                .url("https://api.rainviewer.com/public/weather-maps.json")
+                                .build()))
                 .then(s -> {
                     JSONArray rainviewerData = new JSONObject(s)
                             .getJSONObject("radar")
@@ -585,47 +632,53 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
                     post(() -> mapView.getMapAsync(mapboxMap -> mapboxMap.getStyle(style -> {
                         String name;
                         long firstNewTimestamp = timestamps.size() > 0 ? timestamps.get(0).first : 0;
-                        long lastOldTimestamp = rainViewerTimestamps.size() > 0 ? rainViewerTimestamps.get(rainViewerTimestamps.size() - 1).first : 0;
+                        HashMap<Long, RasterLayer> oldRainViewerLayers = new HashMap<>();
 
-                        for (Pair<Long, String> oldRainViewerTimestamp : rainViewerTimestamps) {
-                            name = "radar" + oldRainViewerTimestamp.first;
+                        for (int i = 0, l = rainViewerTimestamps.size(); i < l; i++) {
+                            long oldTimestamp = rainViewerTimestamps.get(i).first;
+                            RasterLayer layer = rainViewerLayers.get(i);
 
-                            if (firstNewTimestamp > oldRainViewerTimestamp.first) {
-                                style.removeLayer(name);
-                                style.removeSource(name);
+                            if (firstNewTimestamp > oldTimestamp) {
+                                style.removeLayer(layer);
+                                style.removeSource(layer.getSourceId());
                             } else {
-                                Layer layer = style.getLayer(name);
-
-                                if (layer != null) {
-                                    layer.setProperties(getRasterOpacity(false));
-                                }
+                                layer.setProperties(getRasterOpacity(false));
+                                oldRainViewerLayers.put(oldTimestamp, layer);
                             }
                         }
 
+                        rainViewerLayers.clear();
+
                         for (Pair<Long, String> newRainViewerTimestamp : timestamps) {
                             name = "radar" + newRainViewerTimestamp.first;
 
-                            if (lastOldTimestamp < newRainViewerTimestamp.first) {
+                            RasterLayer layer = oldRainViewerLayers.remove(newRainViewerTimestamp.first);
+
+                            if (layer == null) {
                                 TileSet tileSet = new TileSet("",
-                                        "https://tilecache.rainviewer.com" +
-                                                newRainViewerTimestamp.second + "/" +
-                                                radarResolution +
-                                                "/{z}/{x}/{y}/" +
-                                                radarTheme +
-                                                "/1_1.png");
+                                        RadarTileCache.getRainViewerTileUrl(
+                                                newRainViewerTimestamp.second,
+                                                radarResolution,
+                                                radarTheme));
                                 tileSet.setAttribution(RAINVIEWER_ATTRIBUTION);
 
-                                style.addSource(new RasterSource(name, tileSet, 256));
-                                style.addLayerAbove(new RasterLayer(name, name).withProperties(getRasterOpacity(false)), "highway_motorway_bridge_inner");
+                                layer = new RasterLayer(name, name).withProperties(getRasterOpacity(false));
+
+                                style.addSource(new RasterSource(name, tileSet, RadarTileCache.RAINVIEWER_TILE_SIZE));
+                                style.addLayerAbove(layer, "highway_motorway_bridge_inner");
                             }
-                        }
 
-                        Layer lastLayer = style.getLayer("radar" + timestamps.get(timestamps.size() - 1).first);
+                            rainViewerLayers.add(layer);
+                        }
 
-                        if (lastLayer != null) {
-                            lastLayer.setProperties(getRasterOpacity(true));
+                        for (RasterLayer layer : oldRainViewerLayers.values()) {
+                            style.removeLayer(layer);
+                            style.removeSource(layer.getSourceId());
                         }
 
+                        rainViewerLayers.get(rainViewerLayers.size() - 1).setProperties(getRasterOpacity(true));
+                        visibleRainViewerFrame = rainViewerLayers.size() - 1;
+
                         rainViewerTimestamps.clear();
                         rainViewerTimestamps.addAll(timestamps);
 
@@ -686,10 +739,12 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
     }
 
     //based on https://github.com/klokantech/openmaptiles-language
-    private String withStyledLocalizedText(String styleJson, boolean isNightModeActive) throws JSONException {
+    private String withStyledLocalizedText(String styleJson,
+                                          boolean isNightModeActive,
+                                          String language,
+                                          double textScaling) throws JSONException {
         JSONObject styleJsonObj = new JSONObject(styleJson);
 
-        String language = Locale.getDefault().getLanguage();
         boolean isLatin = !Arrays.asList("ar", "hy", "be", "bg", "zh", "ka", "el", "he",
                 "ja", "kn", "kk", "ko", "mk", "ru", "sr", "th", "uk").contains(language);
 
@@ -699,15 +754,17 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
 
         String textColor = isNightModeActive ? "rgba(255,255,255,0.8)" : "rgba(0,0,0,0.8)";
         String textHaloColor = isNightModeActive ? "hsl(0, 0%, 20%)" : "rgb(242,243,240)";
-        double textScaling = getTextScaling();
 
         styleJsonObj.put("sprite", null);
 
         JSONArray layersArray = styleJsonObj.getJSONArray("layers");
+        JSONArray localizedLayersArray = new JSONArray();
 
-        for (int i = layersArray.length() - 1; i >= 0; i--) {
+        for (int i = 0, l = layersArray.length(); i < l; i++) {
             JSONObject layer = layersArray.getJSONObject(i);
 
+            localizedLayersArray.put(layer);
+
             if (layer.optString("type").equals("symbol")) {
                 JSONObject layerPaint = layer.has("paint") ? layer.getJSONObject("paint") : new JSONObject();
 
@@ -765,18 +822,12 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
                 duplicateLayerLayout.put("text-field", textField);
                 duplicateLayer.put("layout", duplicateLayerLayout);
 
-                //insert duplicate layer after layer
-                for (int j = layersArray.length() - 1; j >= i + 1; j--) {
-                    layersArray.put(j + 1, layersArray.get(j));
-                }
-
-                layersArray.put(i + 1, duplicateLayer);
-
-                layersArray.put(i, layer);
+                //duplicate layer goes right after layer
+                localizedLayersArray.put(duplicateLayer);
             }
         }
 
-        styleJsonObj.put("layers", layersArray);
+        styleJsonObj.put("layers", localizedLayersArray);
 
         return styleJsonObj.toString();
     }
@@ -823,11 +874,7 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
     }
 
     private void setHTTPOptions() {
-        OkHttpClient client = new OkHttpClient.Builder()
-                .addInterceptor(new RetryInterceptor())
-                .build();
-
-        HttpRequestUtil.setOkHttpClient(client);
+        HttpRequestUtil.setOkHttpClient(RadarTileCache.getInstance(getContext()).getOkHttpClient());
         HttpRequestUtil.setLogEnabled(false);
     }
 
@@ -966,33 +1013,4 @@ public class WeatherMapView extends ConstraintLayout implements View.OnClickList
                     });
         }
     }
-
-    //https://gist.github.com/devrath/e86d591e0e03732f5050bc8a798c60b6
-    public static class RetryInterceptor implements Interceptor {
-        private static final int NUMBER_OF_RETRIES = 4;
-        private static final double RETRY_DELAY = 300;
-
-        /** @noinspection resource*/
-        @NonNull
-        public Response intercept(Chain chain) throws IOException {
-            Request request = chain.request();
-            // try the request
-            final Response[] response = {chain.proceed(request)};
-            int tryCount = 0;
-            while (!response[0].isSuccessful() && tryCount < NUMBER_OF_RETRIES) {
-                int expDelay = (int) (RETRY_DELAY * Math.pow(2, Math.max(0, NUMBER_OF_RETRIES - 1)));
-                tryCount++;
-                new Handler().postDelayed(() -> {
-                    try {
-                        response[0] = chain.call().clone().execute();
-                    } catch (IOException e) {
-                        e.printStackTrace();
-                    }
-                }, expDelay);
-            }
-            // otherwise just pass the original response on
-            return response[0];
-        }
-
-    }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.ominous.quickweather.api;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RadarTileCacheTest {
+    private final static String PATH = "/v2/radar/1700000000";
+
+    @Test
+    public void tileZoomMatchesMapLibre() {
+        //MapLibre requests round(zoom + log2(512 / tileSize))
+        assertEquals(4, RadarTileCache.getTileZoom(3.4, 256));
+        assertEquals(5, RadarTileCache.getTileZoom(3.6, 256));
+        assertEquals(3, RadarTileCache.getTileZoom(3.4, 512));
+        assertEquals(0, RadarTileCache.getTileZoom(-2, 256));
+    }
+
+    @Test
+    public void prefetchedUrlMatchesSourceUrl() {
+        List<String> templates = Collections.singletonList(
+                RadarTileCache.getRainViewerTileUrl(PATH, "256", "2"));
+
+        //New York City at zoom 6.3 is drawn from the 256 pixel tile 7/37/48
+        assertEquals(Collections.singletonList("https://tilecache.rainviewer.com" + PATH + "/256/7/37/48/2/1_1.png"),
+                RadarTileCache.getTileUrls(templates, 40.72, 40.70, -74.01, -74.00, 6.3, 256));
+        assertEquals(Collections.singletonList("https://tilecache.rainviewer.com" + PATH + "/256/6/18/24/2/1_1.png"),
+                RadarTileCache.getTileUrls(templates, 40.72, 40.70, -74.01, -74.00, 6.3, 512));
+    }
+
+    @Test
+    public void everyFrameGetsTheSameTiles() {
+        List<String> templates = new ArrayList<>();
+
+        for (int i = 0; i < 16; i++) {
+            templates.add(RadarTileCache.getRainViewerTileUrl(PATH + i, "256", "2"));
+        }
+
+        //Large enough that the prefetch is capped
+        List<String> urls = RadarTileCache.getTileUrls(templates, 60, 20, -120, -60, 6, 256);
+
+        assertTrue(urls.size() > 0);
+        assertEquals(0, urls.size() % templates.size());
+
+        List<String> firstFrameTiles = getTiles(urls, templates.get(0));
+
+        assertEquals(urls.size() / templates.size(), firstFrameTiles.size());
+
+        for (String template : templates) {
+            assertEquals(firstFrameTiles, getTiles(urls, template));
+        }
+    }
+
+    private static List<String> getTiles(List<String> urls, String template) {
+        String prefix = template.substring(0, template.indexOf("{z}"));
+        List<String> tiles = new ArrayList<>();
+
+        for (String url : urls) {
+            if (url.startsWith(prefix)) {
+                tiles.add(url.substring(prefix.length()));
+            }
+        }
+
+        return tiles;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.benchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+//Generates the Baseline Profile for :app from startup, ForecastActivity and the fullscreen radar.
+//Run on a rooted device or an emulator, then copy the generated baseline-prof.txt from the test output
+//to app/src/main/baseline-prof.txt. StartupBenchmark and NavigationBenchmark require it
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+    @Rule
+    public BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(QuickWeatherJourneys.PACKAGE_NAME, scope -> {
+            scope.pressHome();
+            scope.startActivityAndWait();
+            QuickWeatherJourneys.waitForCurrentMain(scope);
+
+            QuickWeatherJourneys.openForecast(scope);
+            scope.getDevice().pressBack();
+            QuickWeatherJourneys.waitForCurrentMain(scope);
+
+            QuickWeatherJourneys.openRadarFullscreen(scope);
+            scope.getDevice().pressBack();
+
+            return Unit.INSTANCE;
+        });
+    }
+}
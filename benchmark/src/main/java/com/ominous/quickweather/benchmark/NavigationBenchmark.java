@@ -0,0 +1,77 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.benchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
+
+//Frame timing while opening ForecastActivity and the fullscreen radar from a loaded MainActivity
+@RunWith(AndroidJUnit4.class)
+public class NavigationBenchmark {
+    private final static int ITERATIONS = 5;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void openForecast() {
+        measure(scope -> {
+            QuickWeatherJourneys.openForecast(scope);
+            return Unit.INSTANCE;
+        });
+    }
+
+    @Test
+    public void openRadarFullscreen() {
+        measure(scope -> {
+            QuickWeatherJourneys.openRadarFullscreen(scope);
+            return Unit.INSTANCE;
+        });
+    }
+
+    private void measure(Function1<MacrobenchmarkScope, Unit> measureBlock) {
+        benchmarkRule.measureRepeated(
+                QuickWeatherJourneys.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                new CompilationMode.Partial(BaselineProfileMode.Require),
+                null,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    QuickWeatherJourneys.waitForCurrentMain(scope);
+                    return Unit.INSTANCE;
+                },
+                measureBlock);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *   Copyright 2019 - 2024 Tyler Williamson
+ *
+ *   This file is part of QuickWeather.
+ *
+ *   QuickWeather is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   QuickWeather is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with QuickWeather.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.ominous.quickweather.benchmark;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.BySelector;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+//Navigation through the app shared by the benchmarks and the Baseline Profile generator
+public class QuickWeatherJourneys {
+    public final static String PACKAGE_NAME = "com.ominous.quickweather";
+    private final static long TIMEOUT = 30 * 1000;
+
+    private QuickWeatherJourneys() {
+
+    }
+
+    //The weather has loaded once the current conditions card is shown
+    public static void waitForCurrentMain(MacrobenchmarkScope scope) {
+        waitFor(scope.getDevice(), By.res(PACKAGE_NAME, "current_main_view"));
+    }
+
+    //Opens ForecastActivity from the first daily forecast card
+    public static void openForecast(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+
+        scrollTo(device, By.res(PACKAGE_NAME, "forecast_title")).click();
+
+        device.waitForWindowUpdate(PACKAGE_NAME, TIMEOUT);
+        waitForCurrentMain(scope);
+    }
+
+    public static void openRadarFullscreen(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+
+        scrollTo(device, By.res(PACKAGE_NAME, "button_expand")).click();
+
+        device.waitForIdle();
+    }
+
+    private static UiObject2 scrollTo(UiDevice device, BySelector selector) {
+        UiObject2 cardList = waitFor(device, By.res(PACKAGE_NAME, "weather_card_recycler_view"));
+        UiObject2 target;
+
+        //Keeps the swipes away from the navigation gesture areas
+        cardList.setGestureMargin(device.getDisplayWidth() / 5);
+
+        while ((target = device.findObject(selector)) == null) {
+            if (!cardList.scroll(Direction.DOWN, 0.8f)) {
+                throw new IllegalStateException("Could not find " + selector);
+            }
+        }
+
+        return target;
+    }
+
+    private static UiObject2 waitFor(UiDevice device, BySelector selector) {
+        UiObject2 object = device.wait(Until.findObject(selector), TIMEOUT);
+
+        if (object == null) {
+            throw new IllegalStateException("Timed out waiting for " + selector);
+        }
+
+        return object;
+    }
+}